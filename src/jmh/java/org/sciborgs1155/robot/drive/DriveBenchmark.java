@@ -0,0 +1,98 @@
+package org.sciborgs1155.robot.drive;
+
+import edu.wpi.first.hal.HAL;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.photonvision.EstimatedRobotPose;
+import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.sciborgs1155.robot.drive.DriveConstants.ControlMode;
+import org.sciborgs1155.robot.vision.Vision.PoseEstimate;
+
+/**
+ * Benchmarks for the hot path of {@link Drive}, run every tick of the robot loop.
+ *
+ * <p>Run with {@code ./gradlew jmh}. The GC profiler reports bytes allocated per operation
+ * alongside ns/op.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DriveBenchmark {
+  /** The type of module the drive is built from. */
+  @Param({"SIM", "NONE"})
+  public String modules;
+
+  private Drive drive;
+
+  private final ChassisSpeeds speeds = new ChassisSpeeds(1.5, -0.75, 0.5);
+
+  private final PoseEstimate[] estimates = {
+    estimate("left", new Pose3d(2, 3, 0, new Rotation3d())),
+    estimate("right", new Pose3d(2.05, 2.95, 0, new Rotation3d()))
+  };
+
+  private static PoseEstimate estimate(String camera, Pose3d pose) {
+    return new PoseEstimate(
+        camera,
+        new EstimatedRobotPose(pose, 0, List.of(), PoseStrategy.MULTI_TAG_PNP_ON_COPROCESSOR),
+        VecBuilder.fill(0.3, 0.3, 4));
+  }
+
+  @Setup(Level.Trial)
+  public void setup() {
+    HAL.initialize(500, 0);
+    drive =
+        switch (modules) {
+          case "SIM" ->
+              new Drive(
+                  new NoGyro(),
+                  new SimModule("FL"),
+                  new SimModule("FR"),
+                  new SimModule("RL"),
+                  new SimModule("RR"));
+          default -> Drive.none();
+        };
+  }
+
+  @TearDown(Level.Trial)
+  public void teardown() throws Exception {
+    CommandScheduler.getInstance().unregisterAllSubsystems();
+    drive.close();
+  }
+
+  @Benchmark
+  public void periodic() {
+    drive.periodic();
+  }
+
+  @Benchmark
+  public void setChassisSpeeds() {
+    drive.setChassisSpeeds(speeds, ControlMode.CLOSED_LOOP_VELOCITY);
+  }
+
+  @Benchmark
+  public void updateEstimates() {
+    drive.updateEstimates(estimates);
+  }
+}
@@ -0,0 +1,107 @@
+package org.sciborgs1155.lib;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.hal.DriverStationJNI;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.util.WPIUtilJNI;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+
+/**
+ * AllianceTracker caches the robot's alliance, and the field orientation that follows from it.
+ *
+ * <p>Once started, a daemon thread waits for new driver station data and only then queries the
+ * alliance, so reading it is a field access rather than a driver station query. Until then, or if
+ * the alliance is unknown, it is treated as blue.
+ *
+ * <pre>
+ * AllianceTracker.start(); // starts tracking, once at robot startup
+ * AllianceTracker.alliance(); // the current alliance
+ * AllianceTracker.rotation(); // the rotation of the alliance's driver station wall
+ * AllianceTracker.refresh(); // updates immediately, without waiting for the tracking thread
+ * </pre>
+ */
+public final class AllianceTracker {
+  /** The alliance and the values that follow from it, published together. */
+  private record State(Alliance alliance, boolean red, Rotation2d rotation) {}
+
+  private static final State BLUE = new State(Alliance.Blue, false, Rotation2d.kZero);
+  private static final State RED = new State(Alliance.Red, true, Rotation2d.kPi);
+
+  private static volatile State state = BLUE;
+
+  // run by the tracking thread after each refresh, so that tests can wait for it
+  static volatile Runnable onTrack = () -> {};
+
+  private static Thread thread;
+
+  private AllianceTracker() {}
+
+  /** Refreshes the alliance, and starts tracking it on a daemon thread if not already started. */
+  public static synchronized void start() {
+    refresh();
+    if (thread == null) {
+      thread = new Thread(AllianceTracker::track, "AllianceTracker");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /** Waits for new driver station data, refreshing the alliance each time it arrives. */
+  private static void track() {
+    int event = WPIUtilJNI.createEvent(false, false);
+    DriverStation.provideRefreshedDataEventHandle(event);
+    try {
+      while (true) {
+        WPIUtilJNI.waitForObject(event);
+        refresh();
+        onTrack.run();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      DriverStation.removeRefreshedDataEventHandle(event);
+      WPIUtilJNI.destroyEvent(event);
+    }
+  }
+
+  /**
+   * Queries the driver station for the alliance, updating the cached values. This is called
+   * automatically whenever new driver station data arrives.
+   */
+  public static synchronized void refresh() {
+    AllianceStationID station = DriverStationJNI.getAllianceStation();
+    state =
+        switch (station) {
+          case Red1, Red2, Red3 -> RED;
+          default -> BLUE;
+        };
+  }
+
+  /**
+   * Returns the robot's alliance.
+   *
+   * @return The alliance, or blue if it is unknown.
+   */
+  public static Alliance alliance() {
+    return state.alliance();
+  }
+
+  /**
+   * Returns whether the robot is on the red alliance.
+   *
+   * @return Whether the alliance is red.
+   */
+  public static boolean isRed() {
+    return state.red();
+  }
+
+  /**
+   * Returns the rotation of the robot's alliance with respect to the origin.
+   *
+   * @return 0 for the blue alliance, or a half rotation for the red alliance.
+   */
+  public static Rotation2d rotation() {
+    return state.rotation();
+  }
+}
@@ -7,6 +7,8 @@ import edu.wpi.first.wpilibj2.command.CommandScheduler;
  * @see https://github.com/wpilibsuite/allwpilib/pull/5939
  */
 public class CommandRobot extends TimedRobot {
+  private final LoopTimer.Phase signals = LoopTimer.phase("Phoenix Signals");
+  private final LoopTimer.Phase scheduler = LoopTimer.phase("Scheduler");
 
   protected CommandRobot() {
     this(kDefaultPeriod);
@@ -18,7 +20,18 @@ public class CommandRobot extends TimedRobot {
 
   @Override
   public void robotPeriodic() {
+    LogPolicy.update();
+
+    signals.start();
+    PhoenixSignals.refresh();
+    signals.stop();
+
+    scheduler.start();
+    SchedulerTick.advance();
     CommandScheduler.getInstance().run();
+    scheduler.stop();
+
+    LoopTimer.update();
   }
 
   @Override
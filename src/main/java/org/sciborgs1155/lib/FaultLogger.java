@@ -1,5 +1,6 @@
 package org.sciborgs1155.lib;
 
+import com.ctre.phoenix6.BaseStatusSignal;
 import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.reduxrobotics.sensors.canandgyro.Canandgyro;
@@ -10,17 +11,28 @@ import edu.wpi.first.hal.PowerDistributionFaults;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.StringArrayPublisher;
+import edu.wpi.first.units.measure.Time;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DutyCycleEncoder;
+import edu.wpi.first.wpilibj.Notifier;
 import edu.wpi.first.wpilibj.PowerDistribution;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.WrongMethodTypeException;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.BiConsumer;
 import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
 import java.util.function.Supplier;
 import org.photonvision.PhotonCamera;
 
@@ -66,44 +78,164 @@ public final class FaultLogger {
       infos = table.getStringArrayTopic("infos").publish();
     }
 
-    public void set(Set<Fault> faults) {
-      errors.set(filteredStrings(faults, FaultType.ERROR));
-      warnings.set(filteredStrings(faults, FaultType.WARNING));
-      infos.set(filteredStrings(faults, FaultType.INFO));
+    /**
+     * Sets the alerts to a set of registered faults.
+     *
+     * @param ids The ids of the faults to display.
+     */
+    private void set(BitSet ids) {
+      errors.set(filteredStrings(ids, FaultType.ERROR));
+      warnings.set(filteredStrings(ids, FaultType.WARNING));
+      infos.set(filteredStrings(ids, FaultType.INFO));
     }
   }
 
+  // REGISTRY
+  // every fault seen is given a stable id, its index in these lists
+  private static final List<Fault> registry = new ArrayList<>();
+  private static final List<String> labels = new ArrayList<>();
+  private static final Map<Fault, Integer> ids = new HashMap<>();
+
   // DATA
-  private static final List<Supplier<Optional<Fault>>> faultReporters = new ArrayList<>();
-  private static final Set<Fault> activeFaults = new HashSet<>();
-  private static final Set<Fault> totalFaults = new HashSet<>();
+  // each reader sets the ids of the faults it finds; devices are queried once per reader per poll
+  private static final List<Consumer<BitSet>> faultReaders = new CopyOnWriteArrayList<>();
+  private static final BitSet activeFaults = new BitSet();
+  private static final BitSet totalFaults = new BitSet();
+
+  // faults found by the latest poll, only replaced when they change
+  private static volatile BitSet polledFaults = new BitSet();
+
+  // POLLING
+  private static final BitSet pollBuffer = new BitSet();
+  private static Optional<Notifier> poller = Optional.empty();
 
   // NETWORK TABLES
   private static final NetworkTable base = NetworkTableInstance.getDefault().getTable("Faults");
   private static final Alerts activeAlerts = new Alerts(base, "Active Faults");
   private static final Alerts totalAlerts = new Alerts(base, "Total Faults");
+  private static final BitSet publishedFaults = new BitSet();
+  private static boolean stale = true;
 
-  /** Polls registered fallibles. This method should be called periodically. */
+  /**
+   * Collects polled and reported faults and publishes them to NetworkTables if they changed. This
+   * method should be called periodically.
+   *
+   * <p>Registered fallibles are polled here, unless they are already being polled in the
+   * background by {@link #startPolling}.
+   */
   public static void update() {
-    faultReporters.forEach(r -> r.get().ifPresent(fault -> report(fault)));
+    if (poller.isEmpty()) {
+      poll();
+    }
 
-    totalFaults.addAll(activeFaults);
+    activeFaults.or(polledFaults);
+    int total = totalFaults.cardinality();
+    totalFaults.or(activeFaults);
 
-    activeAlerts.set(activeFaults);
-    totalAlerts.set(totalFaults);
+    if (stale || !activeFaults.equals(publishedFaults)) {
+      activeAlerts.set(activeFaults);
+      publishedFaults.clear();
+      publishedFaults.or(activeFaults);
+    }
+    if (stale || totalFaults.cardinality() != total) {
+      totalAlerts.set(totalFaults);
+    }
+    stale = false;
 
     activeFaults.clear();
   }
 
+  /**
+   * Starts polling registered fallibles on a background thread, instead of in {@link #update()}.
+   * Only changes in the polled faults are handed back to the main thread.
+   *
+   * @param period The time between polls.
+   */
+  public static void startPolling(Time period) {
+    stopPolling();
+    Notifier notifier = new Notifier(FaultLogger::poll);
+    notifier.setName("FaultLogger");
+    notifier.startPeriodic(period);
+    poller = Optional.of(notifier);
+  }
+
+  /** Stops polling registered fallibles in the background. */
+  public static void stopPolling() {
+    poller.ifPresent(Notifier::close);
+    poller = Optional.empty();
+  }
+
+  /** Reads every registered fallible once, and hands off the faults found if they changed. */
+  private static void poll() {
+    pollBuffer.clear();
+    for (Consumer<BitSet> reader : faultReaders) {
+      reader.accept(pollBuffer);
+    }
+
+    BitSet previous = polledFaults;
+    if (!pollBuffer.equals(previous)) {
+      for (int id = pollBuffer.nextSetBit(0); id >= 0; id = pollBuffer.nextSetBit(id + 1)) {
+        if (!previous.get(id)) {
+          print(fault(id));
+        }
+      }
+      polledFaults = (BitSet) pollBuffer.clone();
+    }
+  }
+
   /** Clears total faults. */
   public static void clear() {
     totalFaults.clear();
     activeFaults.clear();
+    polledFaults = new BitSet();
+    stale = true;
   }
 
   /** Clears fault suppliers. */
   public static void unregisterAll() {
-    faultReporters.clear();
+    faultReaders.clear();
+    polledFaults = new BitSet();
+  }
+
+  /**
+   * Returns the id of a fault, registering it if it has not been seen before.
+   *
+   * @param fault The fault.
+   * @return The fault's stable id.
+   */
+  private static synchronized int intern(Fault fault) {
+    Integer id = ids.get(fault);
+    if (id == null) {
+      id = registry.size();
+      registry.add(fault);
+      labels.add(fault.toString());
+      ids.put(fault, id);
+    }
+    return id;
+  }
+
+  /**
+   * Returns the fault with an id.
+   *
+   * @param id The fault's id.
+   * @return The fault.
+   */
+  static synchronized Fault fault(int id) {
+    return registry.get(id);
+  }
+
+  /**
+   * Returns a set of the faults with the given ids.
+   *
+   * @param faults The ids of the faults.
+   * @return A new set of faults.
+   */
+  private static Set<Fault> faults(BitSet faults) {
+    Set<Fault> set = new HashSet<>();
+    for (int id = faults.nextSetBit(0); id >= 0; id = faults.nextSetBit(id + 1)) {
+      set.add(fault(id));
+    }
+    return set;
   }
 
   /**
@@ -112,7 +244,7 @@ public final class FaultLogger {
    * @return The set of all current faults.
    */
   public static Set<Fault> activeFaults() {
-    return activeFaults;
+    return faults(activeFaults);
   }
 
   /**
@@ -121,7 +253,7 @@ public final class FaultLogger {
    * @return The set of all total faults.
    */
   public static Set<Fault> totalFaults() {
-    return totalFaults;
+    return faults(totalFaults);
   }
 
   /**
@@ -130,7 +262,16 @@ public final class FaultLogger {
    * @param fault The fault to report.
    */
   public static void report(Fault fault) {
-    activeFaults.add(fault);
+    activeFaults.set(intern(fault));
+    print(fault);
+  }
+
+  /**
+   * Prints a fault to the driver station.
+   *
+   * @param fault The fault to print.
+   */
+  private static void print(Fault fault) {
     switch (fault.type) {
       case ERROR -> DriverStation.reportError(fault.toString(), false);
       case WARNING -> DriverStation.reportWarning(fault.toString(), false);
@@ -155,7 +296,16 @@ public final class FaultLogger {
    * @param supplier A supplier of an optional fault.
    */
   public static void register(Supplier<Optional<Fault>> supplier) {
-    faultReporters.add(supplier);
+    registerReader(faults -> supplier.get().ifPresent(fault -> faults.set(intern(fault))));
+  }
+
+  /**
+   * Registers a reader that queries a device once and sets the id of every fault it finds.
+   *
+   * @param reader A consumer that sets the ids of active faults.
+   */
+  private static void registerReader(Consumer<BitSet> reader) {
+    faultReaders.add(reader);
   }
 
   /**
@@ -167,57 +317,54 @@ public final class FaultLogger {
    */
   public static void register(
       BooleanSupplier condition, String name, String description, FaultType type) {
-    register(
-        () ->
-            condition.getAsBoolean()
-                ? Optional.of(new Fault(name, description, type))
-                : Optional.empty());
+    int id = intern(new Fault(name, description, type));
+    registerReader(faults -> addIf(faults, condition.getAsBoolean(), id));
+  }
+
+  /**
+   * Sets the id of a fault if a condition is true.
+   *
+   * @param faults The ids of active faults.
+   * @param condition Whether the failure is occuring.
+   * @param id The fault's id.
+   */
+  private static void addIf(BitSet faults, boolean condition, int id) {
+    if (condition) {
+      faults.set(id);
+    }
   }
 
   /**
    * Registers fault suppliers for a CAN-based Spark motor controller.
    *
+   * <p>The spark's faults are read once per poll.
+   *
    * @param spark The Spark Max or Spark Flex to manage.
    */
   public static void register(SparkBase spark) {
-    register(
-        () -> spark.getFaults().other,
-        SparkUtils.name(spark),
-        "other strange error",
-        FaultType.ERROR);
-    register(
-        () -> spark.getFaults().motorType,
-        SparkUtils.name(spark),
-        "motor type error",
-        FaultType.ERROR);
-    register(
-        () -> spark.getFaults().sensor, SparkUtils.name(spark), "sensor error", FaultType.ERROR);
-    register(() -> spark.getFaults().can, SparkUtils.name(spark), "CAN error", FaultType.ERROR);
-    register(
-        () -> spark.getFaults().temperature,
-        SparkUtils.name(spark),
-        "temperature error",
-        FaultType.ERROR);
-    register(
-        () -> spark.getFaults().gateDriver,
-        SparkUtils.name(spark),
-        "gate driver error",
-        FaultType.ERROR);
-    register(
-        () -> spark.getFaults().escEeprom,
-        SparkUtils.name(spark),
-        "escEeprom? error",
-        FaultType.ERROR);
-    register(
-        () -> spark.getFaults().firmware,
-        SparkUtils.name(spark),
-        "firmware error",
-        FaultType.ERROR);
-    register(
-        () -> spark.getMotorTemperature() > 100,
-        SparkUtils.name(spark),
-        "motor above 100°C",
-        FaultType.WARNING);
+    String name = SparkUtils.name(spark);
+    int other = intern(new Fault(name, "other strange error", FaultType.ERROR));
+    int motorType = intern(new Fault(name, "motor type error", FaultType.ERROR));
+    int sensor = intern(new Fault(name, "sensor error", FaultType.ERROR));
+    int can = intern(new Fault(name, "CAN error", FaultType.ERROR));
+    int temperature = intern(new Fault(name, "temperature error", FaultType.ERROR));
+    int gateDriver = intern(new Fault(name, "gate driver error", FaultType.ERROR));
+    int escEeprom = intern(new Fault(name, "escEeprom? error", FaultType.ERROR));
+    int firmware = intern(new Fault(name, "firmware error", FaultType.ERROR));
+    int hot = intern(new Fault(name, "motor above 100°C", FaultType.WARNING));
+    registerReader(
+        active -> {
+          var faults = spark.getFaults();
+          addIf(active, faults.other, other);
+          addIf(active, faults.motorType, motorType);
+          addIf(active, faults.sensor, sensor);
+          addIf(active, faults.can, can);
+          addIf(active, faults.temperature, temperature);
+          addIf(active, faults.gateDriver, gateDriver);
+          addIf(active, faults.escEeprom, escEeprom);
+          addIf(active, faults.firmware, firmware);
+          addIf(active, spark.getMotorTemperature() > 100, hot);
+        });
   }
 
   /**
@@ -245,68 +392,118 @@ public final class FaultLogger {
   /**
    * Registers Alerts for faults of a Redux Boron CANandGyro.
    *
+   * <p>The gyro's faults are read once per poll.
+   *
    * @param canandgyro The Redux Boron CANandGyro to manage.
    */
   public static void register(Canandgyro canandgyro) {
-    register(() -> !canandgyro.isConnected(), "CANandGyro", "disconnected", FaultType.ERROR);
-    register(
-        () -> canandgyro.getActiveFaults().accelerationSaturation(),
-        "CANandGyro",
-        "acceleration saturated",
-        FaultType.WARNING);
-    register(
-        () -> canandgyro.getActiveFaults().angularVelocitySaturation(),
-        "CANandGyro",
-        "angular velocity saturated",
-        FaultType.WARNING);
-    register(
-        () -> canandgyro.getActiveFaults().calibrating(),
-        "CANandGyro",
-        "calibrating",
-        FaultType.WARNING);
-    register(
-        () -> canandgyro.getActiveFaults().canGeneralError(),
-        "CANandGyro",
-        "general CAN error",
-        FaultType.ERROR);
-    register(
-        () -> canandgyro.getActiveFaults().canIDConflict(),
-        "CANandGyro",
-        "CAN ID conflict",
-        FaultType.ERROR);
-    register(
-        () -> canandgyro.getActiveFaults().outOfTemperatureRange(),
-        "CANandGyro",
-        "temperature error",
-        FaultType.ERROR);
-    register(
-        () -> canandgyro.getActiveFaults().powerCycle(),
-        "CANandGyro",
-        "power cycling",
-        FaultType.WARNING);
+    String name = "CANandGyro";
+    int disconnected = intern(new Fault(name, "disconnected", FaultType.ERROR));
+    int accelerationSaturation =
+        intern(new Fault(name, "acceleration saturated", FaultType.WARNING));
+    int angularVelocitySaturation =
+        intern(new Fault(name, "angular velocity saturated", FaultType.WARNING));
+    int calibrating = intern(new Fault(name, "calibrating", FaultType.WARNING));
+    int canGeneralError = intern(new Fault(name, "general CAN error", FaultType.ERROR));
+    int canIDConflict = intern(new Fault(name, "CAN ID conflict", FaultType.ERROR));
+    int outOfTemperatureRange = intern(new Fault(name, "temperature error", FaultType.ERROR));
+    int powerCycle = intern(new Fault(name, "power cycling", FaultType.WARNING));
+    registerReader(
+        active -> {
+          addIf(active, !canandgyro.isConnected(), disconnected);
+          var faults = canandgyro.getActiveFaults();
+          addIf(active, faults.accelerationSaturation(), accelerationSaturation);
+          addIf(active, faults.angularVelocitySaturation(), angularVelocitySaturation);
+          addIf(active, faults.calibrating(), calibrating);
+          addIf(active, faults.canGeneralError(), canGeneralError);
+          addIf(active, faults.canIDConflict(), canIDConflict);
+          addIf(active, faults.outOfTemperatureRange(), outOfTemperatureRange);
+          addIf(active, faults.powerCycle(), powerCycle);
+        });
   }
 
   /**
    * Registers fault suppliers for a power distribution hub/panel.
    *
+   * <p>The power distribution's faults are fetched once per poll.
+   *
    * @param powerDistribution The power distribution to manage.
    */
   public static void register(PowerDistribution powerDistribution) {
-    var fields = PowerDistributionFaults.class.getFields();
-    for (Field fault : fields) {
-      register(
-          () -> {
-            try {
-              if (fault.getBoolean(powerDistribution.getFaults())) {
-                return Optional.of(
-                    new Fault("Power Distribution", fault.getName(), FaultType.ERROR));
-              }
-            } catch (Exception e) {
-            }
-            return Optional.empty();
-          });
+    registerReader(new PowerDistributionReader(powerDistribution));
+  }
+
+  /**
+   * Reads the faults of a power distribution hub/panel with one fetch per poll.
+   *
+   * <p>Each fault flag is decoded with a getter compiled once, straight into the ids of its faults.
+   */
+  static final class PowerDistributionReader implements Consumer<BitSet> {
+    private static final MethodHandle[] getters;
+    static final String[] names;
+
+    static {
+      List<MethodHandle> handles = new ArrayList<>();
+      List<String> fields = new ArrayList<>();
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      for (Field field : PowerDistributionFaults.class.getFields()) {
+        if (field.getType() != boolean.class || Modifier.isStatic(field.getModifiers())) {
+          continue;
+        }
+        try {
+          handles.add(lookup.unreflectGetter(field));
+          fields.add(field.getName());
+        } catch (IllegalAccessException e) {
+          // every public field is accessible, so this means the class is not what we expect
+          throw new IllegalStateException(
+              "cannot read PowerDistributionFaults." + field.getName(), e);
+        }
+      }
+      getters = handles.toArray(MethodHandle[]::new);
+      names = fields.toArray(String[]::new);
+    }
+
+    private final PowerDistribution powerDistribution;
+    private final int[] faults = new int[getters.length];
+    private final int[] unreadable = new int[getters.length];
+
+    PowerDistributionReader(PowerDistribution powerDistribution) {
+      this.powerDistribution = powerDistribution;
+      for (int i = 0; i < getters.length; i++) {
+        faults[i] = intern(new Fault("Power Distribution", names[i], FaultType.ERROR));
+        unreadable[i] =
+            intern(new Fault("Power Distribution", "could not read " + names[i], FaultType.ERROR));
+      }
+    }
+
+    @Override
+    public void accept(BitSet activeFaults) {
+      read(powerDistribution.getFaults(), activeFaults);
+    }
+
+    /**
+     * Sets the ids of every fault flagged in a fetch of the power distribution's faults.
+     *
+     * @param current The fetched faults.
+     * @param activeFaults The ids of active faults.
+     */
+    void read(PowerDistributionFaults current, BitSet activeFaults) {
+      for (int i = 0; i < getters.length; i++) {
+        try {
+          if ((boolean) getters[i].invokeExact(current)) {
+            activeFaults.set(faults[i]);
+          }
+        } catch (ClassCastException | WrongMethodTypeException e) {
+          // reported through this poll's faults, since this runs on the polling thread
+          activeFaults.set(unreadable[i]);
+        } catch (RuntimeException | Error e) {
+          throw e;
+        } catch (Throwable e) {
+          // a field getter throws no checked exceptions
+          throw new IllegalStateException(e);
+        }
+      }
     }
-    ;
   }
 
   /**
@@ -325,18 +522,23 @@ public final class FaultLogger {
   /**
    * Registers fault suppliers for a talon.
    *
+   * <p>The talon's fault signals are refreshed together, once per poll.
+   *
    * @param talon The talon to manage.
    */
   public static void register(TalonFX talon) {
-    int id = talon.getDeviceID();
+    String name = "Talon ID: " + talon.getDeviceID();
+    List<StatusSignal<Boolean>> signals = new ArrayList<>();
+    List<Integer> faults = new ArrayList<>();
     BiConsumer<StatusSignal<Boolean>, String> regFault =
-        (f, d) -> register(() -> f.getValue(), "Talon ID: " + id, d, FaultType.ERROR);
+        (f, d) -> {
+          signals.add(f);
+          faults.add(intern(new Fault(name, d, FaultType.ERROR)));
+        };
 
     // TODO: Remove all the unnecessary faults.
     regFault.accept(talon.getFault_Hardware(), "Hardware fault occurred");
     regFault.accept(talon.getFault_ProcTemp(), "Processor temperature exceeded limit");
-    regFault.accept(talon.getFault_Hardware(), "Hardware fault occurred");
-    regFault.accept(talon.getFault_ProcTemp(), "Processor temperature exceeded limit");
     regFault.accept(talon.getFault_DeviceTemp(), "Device temperature exceeded limit");
     regFault.accept(
         talon.getFault_Undervoltage(), "Device supply voltage dropped to near brownout levels");
@@ -380,6 +582,17 @@ public final class FaultLogger {
     regFault.accept(
         talon.getFault_UsingFusedCANcoderWhileUnlicensed(),
         "Using Fused CANcoder feature while unlicensed. Device has fallen back to remote CANcoder.");
+
+    @SuppressWarnings("unchecked")
+    StatusSignal<Boolean>[] batch = signals.toArray(StatusSignal[]::new);
+    int[] ids = faults.stream().mapToInt(Integer::intValue).toArray();
+    registerReader(
+        active -> {
+          BaseStatusSignal.refreshAll(batch);
+          for (int i = 0; i < batch.length; i++) {
+            addIf(active, batch[i].getValue(), ids[i]);
+          }
+        });
   }
 
   /**
@@ -413,15 +626,25 @@ public final class FaultLogger {
   }
 
   /**
-   * Returns an array of descriptions of all faults that match the specified type.
+   * Returns an array of descriptions of all registered faults that match the specified type.
    *
+   * @param faults The ids of the faults to describe.
    * @param type The type to filter for.
    * @return An array of description strings.
    */
-  private static String[] filteredStrings(Set<Fault> faults, FaultType type) {
-    return faults.stream()
-        .filter(a -> a.type() == type)
-        .map(Fault::toString)
-        .toArray(String[]::new);
+  private static synchronized String[] filteredStrings(BitSet faults, FaultType type) {
+    int count = 0;
+    for (int id = faults.nextSetBit(0); id >= 0; id = faults.nextSetBit(id + 1)) {
+      if (registry.get(id).type() == type) {
+        count++;
+      }
+    }
+    String[] strings = new String[count];
+    for (int id = faults.nextSetBit(0), i = 0; id >= 0; id = faults.nextSetBit(id + 1)) {
+      if (registry.get(id).type() == type) {
+        strings[i++] = labels.get(id);
+      }
+    }
+    return strings;
   }
 }
@@ -0,0 +1,176 @@
+package org.sciborgs1155.lib;
+
+import static edu.wpi.first.units.Units.Seconds;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.units.measure.Time;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import edu.wpi.first.wpilibj.smartdashboard.FieldObject2d;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FieldTelemetry publishes poses to a {@link Field2d} at a limited rate, and only when they have
+ * meaningfully changed.
+ *
+ * <p>Setting the pose of an entry only stores it. Stored poses are sent to NetworkTables by {@link
+ * #publish()}, skipping any that are within a threshold of what was last sent, and cleared entries
+ * are removed from the field. All field telemetry can be turned off with {@link #setEnabled}, or
+ * only while connected to an FMS with {@link #disableDuringMatches}.
+ *
+ * <pre>
+ * FieldTelemetry telemetry = new FieldTelemetry(field2d, Seconds.of(0.1), 0.01, 0.01);
+ * FieldTelemetry.Entry robot = telemetry.robot(); // caches the object's handle
+ * if (telemetry.due()) { // whether enough time has passed since the last publish
+ *   robot.set(pose); // stores a pose
+ *   telemetry.publish(); // sends stored poses that have changed
+ * }
+ * </pre>
+ */
+public final class FieldTelemetry {
+  private static boolean enabled = true;
+  private static boolean disableDuringMatches = false;
+
+  private final Field2d field;
+  private final double period;
+  private final double minTranslation;
+  private final double minRotation;
+
+  private final Map<String, Entry> entries = new HashMap<>();
+  private final List<Entry> entryList = new ArrayList<>();
+
+  private double lastPublish = Double.NEGATIVE_INFINITY;
+
+  /**
+   * Creates a telemetry publisher for a field.
+   *
+   * @param field The field to publish to.
+   * @param period The minimum time between publishes.
+   * @param minTranslation The distance in meters a pose must move to be republished.
+   * @param minRotation The angle in radians a pose must turn to be republished.
+   */
+  public FieldTelemetry(Field2d field, Time period, double minTranslation, double minRotation) {
+    this.field = field;
+    this.period = period.in(Seconds);
+    this.minTranslation = minTranslation;
+    this.minRotation = minRotation;
+  }
+
+  /**
+   * Turns all field telemetry on or off.
+   *
+   * @param enabled Whether to publish field telemetry.
+   */
+  public static void setEnabled(boolean enabled) {
+    FieldTelemetry.enabled = enabled;
+  }
+
+  /**
+   * Sets whether field telemetry is turned off while connected to an FMS.
+   *
+   * @param disable Whether to stop publishing during matches.
+   */
+  public static void disableDuringMatches(boolean disable) {
+    disableDuringMatches = disable;
+  }
+
+  /**
+   * Returns the entry for the robot's pose.
+   *
+   * @return The robot's entry.
+   */
+  public Entry robot() {
+    return object("Robot");
+  }
+
+  /**
+   * Returns the entry for a field object, creating it if it does not exist.
+   *
+   * @param name The name of the object.
+   * @return The object's entry.
+   */
+  public Entry object(String name) {
+    Entry entry = entries.get(name);
+    if (entry == null) {
+      entry = new Entry(this, field.getObject(name));
+      entries.put(name, entry);
+      entryList.add(entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Returns whether telemetry is enabled and enough time has passed since the last publish. Poses
+   * that are expensive to compute should only be computed when this is true.
+   *
+   * @return Whether {@link #publish()} would send anything.
+   */
+  public boolean due() {
+    return enabled
+        && Timer.getFPGATimestamp() - lastPublish >= period
+        && !(disableDuringMatches && DriverStation.isFMSAttached());
+  }
+
+  /** Sends every stored pose that has changed meaningfully since it was last sent, if due. */
+  public void publish() {
+    if (!due()) {
+      return;
+    }
+    lastPublish = Timer.getFPGATimestamp();
+    for (int i = 0; i < entryList.size(); i++) {
+      entryList.get(i).flush();
+    }
+  }
+
+  /** A cached handle to an object on the field. */
+  public static final class Entry {
+    private final FieldTelemetry telemetry;
+    private final FieldObject2d object;
+
+    private Pose2d pending;
+    private Pose2d published;
+
+    private Entry(FieldTelemetry telemetry, FieldObject2d object) {
+      this.telemetry = telemetry;
+      this.object = object;
+    }
+
+    /**
+     * Stores a pose, to be sent on the next publish.
+     *
+     * @param pose The pose of the object.
+     */
+    public void set(Pose2d pose) {
+      pending = pose;
+    }
+
+    /** Removes the object from the field on the next publish, until a pose is stored again. */
+    public void clear() {
+      pending = null;
+    }
+
+    /** Sends the stored pose if it has moved or turned past the thresholds. */
+    private void flush() {
+      if (pending == null) {
+        if (published != null) {
+          object.setPoses();
+          published = null;
+        }
+        return;
+      }
+      if (published != null
+          && published.getTranslation().getDistance(pending.getTranslation())
+              < telemetry.minTranslation
+          && Math.abs(published.getRotation().minus(pending.getRotation()).getRadians())
+              < telemetry.minRotation) {
+        return;
+      }
+      object.setPose(pending);
+      published = pending;
+    }
+  }
+}
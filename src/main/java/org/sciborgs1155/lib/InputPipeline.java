@@ -0,0 +1,275 @@
+package org.sciborgs1155.lib;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.filter.LinearFilter;
+import edu.wpi.first.math.filter.SlewRateLimiter;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import java.util.Arrays;
+import java.util.function.DoubleSupplier;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * A compiled chain of {@link InputStream} operators.
+ *
+ * <p>Chaining combinators on an {@link InputStream} wraps it in a new lambda for each operator. An
+ * InputPipeline instead records each operator as an opcode with its operands, and evaluates the
+ * whole chain in one loop over those arrays. Its source is read once per evaluation, and evaluating
+ * never allocates.
+ *
+ * <pre>
+ * InputStream omega =
+ *     InputPipeline.of(driver::getRightX) // starts a pipeline from a source
+ *         .negate()
+ *         .deadband(0.15, 1.0)
+ *         .build(); // compiles the operators into a stream
+ * </pre>
+ */
+public final class InputPipeline implements InputStream {
+  private static final int SCALE = 0;
+  private static final int SCALE_BY = 1;
+  private static final int ADD = 2;
+  private static final int ADD_BY = 3;
+  private static final int POW = 4;
+  private static final int SIGNED_POW = 5;
+  private static final int DEADBAND = 6;
+  private static final int CLAMP = 7;
+  private static final int RATE_LIMIT = 8;
+  private static final int FILTER = 9;
+  private static final int LOG = 10;
+  private static final int MAP = 11;
+
+  private final DoubleSupplier source;
+  private final int[] ops;
+  private final double[] a;
+  private final double[] b;
+  private final Object[] refs;
+
+  // whether the rate limiters have been started from their first input
+  private boolean primed = false;
+
+  private InputPipeline(Builder builder) {
+    source = builder.source;
+    ops = Arrays.copyOf(builder.ops, builder.size);
+    a = Arrays.copyOf(builder.a, builder.size);
+    b = Arrays.copyOf(builder.b, builder.size);
+    refs = Arrays.copyOf(builder.refs, builder.size);
+  }
+
+  /**
+   * Starts building a pipeline from a source.
+   *
+   * @param source The source of the pipeline.
+   * @return A builder for the pipeline.
+   */
+  public static Builder of(DoubleSupplier source) {
+    return new Builder(source);
+  }
+
+  /**
+   * Runs every operator on the current value of the source.
+   *
+   * <p>Rate limiters start from their input on the first evaluation, rather than when the pipeline
+   * is built, so building a pipeline never reads its source or feeds its filters.
+   *
+   * @return The output of the pipeline.
+   */
+  @Override
+  public double getAsDouble() {
+    double x = source.getAsDouble();
+    for (int i = 0; i < ops.length; i++) {
+      switch (ops[i]) {
+        case SCALE -> x *= a[i];
+        case SCALE_BY -> x *= ((DoubleSupplier) refs[i]).getAsDouble();
+        case ADD -> x += a[i];
+        case ADD_BY -> x += ((DoubleSupplier) refs[i]).getAsDouble();
+        case POW -> x = Math.pow(x, a[i]);
+        case SIGNED_POW -> x = Math.copySign(Math.pow(x, a[i]), x);
+        case DEADBAND -> x = MathUtil.applyDeadband(x, a[i], b[i]);
+        case CLAMP -> x = MathUtil.clamp(x, -a[i], a[i]);
+        case RATE_LIMIT -> {
+          SlewRateLimiter limiter = (SlewRateLimiter) refs[i];
+          if (primed) {
+            x = limiter.calculate(x);
+          } else {
+            limiter.reset(x);
+          }
+        }
+        case FILTER -> x = ((LinearFilter) refs[i]).calculate(x);
+        case LOG -> ((DoublePublisher) refs[i]).set(x);
+        case MAP -> x = ((DoubleUnaryOperator) refs[i]).applyAsDouble(x);
+        default -> throw new IllegalStateException("Unknown operator: " + ops[i]);
+      }
+    }
+    primed = true;
+    return x;
+  }
+
+  /** Records the operators of an {@link InputPipeline}, mirroring {@link InputStream}. */
+  public static final class Builder {
+    private final DoubleSupplier source;
+    private int[] ops = new int[8];
+    private double[] a = new double[8];
+    private double[] b = new double[8];
+    private Object[] refs = new Object[8];
+    private int size = 0;
+
+    private Builder(DoubleSupplier source) {
+      this.source = source;
+    }
+
+    private Builder op(int op, double first, double second, Object ref) {
+      if (size == ops.length) {
+        ops = Arrays.copyOf(ops, size * 2);
+        a = Arrays.copyOf(a, size * 2);
+        b = Arrays.copyOf(b, size * 2);
+        refs = Arrays.copyOf(refs, size * 2);
+      }
+      ops[size] = op;
+      a[size] = first;
+      b[size] = second;
+      refs[size] = ref;
+      size++;
+      return this;
+    }
+
+    /**
+     * Maps the outputs by an operator.
+     *
+     * @param operator A function that takes in a double input and returns a double output.
+     * @return This builder.
+     */
+    public Builder map(DoubleUnaryOperator operator) {
+      return op(MAP, 0, 0, operator);
+    }
+
+    /**
+     * Scales the outputs by a factor.
+     *
+     * @param factor A supplier of scaling factors.
+     * @return This builder.
+     */
+    public Builder scale(DoubleSupplier factor) {
+      return op(SCALE_BY, 0, 0, factor);
+    }
+
+    /**
+     * Scales the outputs by a factor.
+     *
+     * @param factor A scaling factor.
+     * @return This builder.
+     */
+    public Builder scale(double factor) {
+      return op(SCALE, factor, 0, null);
+    }
+
+    /**
+     * Negates the outputs.
+     *
+     * @return This builder.
+     */
+    public Builder negate() {
+      return scale(-1);
+    }
+
+    /**
+     * Offsets the outputs.
+     *
+     * @param offset A supplier of offset values.
+     * @return This builder.
+     */
+    public Builder add(DoubleSupplier offset) {
+      return op(ADD_BY, 0, 0, offset);
+    }
+
+    /**
+     * Offsets the outputs.
+     *
+     * @param offset An offset.
+     * @return This builder.
+     */
+    public Builder add(double offset) {
+      return op(ADD, offset, 0, null);
+    }
+
+    /**
+     * Raises the outputs to an exponent.
+     *
+     * @param exponent The exponent to raise them to.
+     * @return This builder.
+     */
+    public Builder pow(double exponent) {
+      return op(POW, exponent, 0, null);
+    }
+
+    /**
+     * Raises the outputs to an exponent and keeps their original sign.
+     *
+     * @param exponent The exponent to raise them to.
+     * @return This builder.
+     */
+    public Builder signedPow(double exponent) {
+      return op(SIGNED_POW, exponent, 0, null);
+    }
+
+    /**
+     * Filters the outputs by the provided {@link LinearFilter}.
+     *
+     * @param filter The linear filter to use.
+     * @return This builder.
+     */
+    public Builder filter(LinearFilter filter) {
+      return op(FILTER, 0, 0, filter);
+    }
+
+    /**
+     * Deadbands the outputs by a minimum bound and scales them from 0 to a maximum bound.
+     *
+     * @param deadband The lower bound to deadband with.
+     * @param max The maximum value to scale with.
+     * @return This builder.
+     */
+    public Builder deadband(double deadband, double max) {
+      return op(DEADBAND, deadband, max, null);
+    }
+
+    /**
+     * Clamps the outputs by a maximum bound.
+     *
+     * @param magnitude The upper bound to clamp with.
+     * @return This builder.
+     */
+    public Builder clamp(double magnitude) {
+      return op(CLAMP, magnitude, 0, null);
+    }
+
+    /**
+     * Rate limits the outputs by a specified rate.
+     *
+     * @param rate The rate in units / s.
+     * @return This builder.
+     */
+    public Builder rateLimit(double rate) {
+      return op(RATE_LIMIT, 0, 0, new SlewRateLimiter(rate, -rate, 0));
+    }
+
+    /**
+     * Logs the outputs to networktables every time the pipeline is polled.
+     *
+     * @param key The NetworkTables key to publish to.
+     * @return This builder.
+     */
+    public Builder log(String key) {
+      return op(LOG, 0, 0, NetworkTableInstance.getDefault().getDoubleTopic(key).publish());
+    }
+
+    /**
+     * Compiles the recorded operators into a stream.
+     *
+     * @return The compiled pipeline.
+     */
+    public InputPipeline build() {
+      return new InputPipeline(this);
+    }
+  }
+}
@@ -163,6 +163,29 @@ public interface InputStream extends DoubleSupplier {
     return map(x -> limiter.calculate(x));
   }
 
+  /**
+   * Caches the output of this stream once per scheduler cycle.
+   *
+   * <p>A new stream is returned that polls this stream at most once per cycle of the {@link
+   * edu.wpi.first.wpilibj2.command.CommandScheduler}, and returns that value until the next cycle.
+   * Use this on streams with several consumers, so stateful operators like {@link #rateLimit} and
+   * {@link #log} run exactly once per loop and every consumer sees the same value.
+   *
+   * @return A stream with the same output as this one, computed once per cycle.
+   */
+  public default InputStream cached() {
+    long[] tick = {-1};
+    double[] value = {0};
+    return () -> {
+      long now = SchedulerTick.get();
+      if (tick[0] != now) {
+        tick[0] = now;
+        value[0] = getAsDouble();
+      }
+      return value[0];
+    };
+  }
+
   /**
    * Logs the output of this stream to networktables every time it is polled.
    *
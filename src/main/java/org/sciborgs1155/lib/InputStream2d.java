@@ -0,0 +1,278 @@
+package org.sciborgs1155.lib;
+
+import edu.wpi.first.math.MathSharedStore;
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A functional interface to aid in modifying pairs of double suppliers, such as from the two axes
+ * of a joystick.
+ *
+ * <p>Streams write their (x, y) output into a caller-provided array, so that polling never
+ * allocates. Operations on the magnitude of the vector, like {@link #deadband}, scale both
+ * components rather than converting to polar form.
+ *
+ * <pre>
+ * InputStream2d stick = InputStream2d.of(driver::getLeftY, driver::getLeftX).deadband(0.15, 1);
+ * double[] xy = new double[2]; // reused every poll
+ * stick.get(xy); // xy[0] is x, xy[1] is y
+ * </pre>
+ */
+@FunctionalInterface
+public interface InputStream2d {
+  /**
+   * Creates a 2d input stream from two suppliers.
+   *
+   * @param x The supplier of x values.
+   * @param y The supplier of y values.
+   * @return A new 2d input stream.
+   */
+  public static InputStream2d of(DoubleSupplier x, DoubleSupplier y) {
+    return out -> {
+      out[0] = x.getAsDouble();
+      out[1] = y.getAsDouble();
+    };
+  }
+
+  /**
+   * Writes the current output of the stream.
+   *
+   * @param out An array of at least length 2, where x and y are written to indices 0 and 1.
+   */
+  void get(double[] out);
+
+  /**
+   * Scales the stream outputs so that their magnitude is changed from one value to another.
+   *
+   * @param out The output to scale.
+   * @param magnitude The current magnitude of the output.
+   * @param newMagnitude The desired magnitude of the output.
+   */
+  private static void rescale(double[] out, double magnitude, double newMagnitude) {
+    if (magnitude == 0) {
+      out[0] = 0;
+      out[1] = 0;
+      return;
+    }
+    double ratio = newMagnitude / magnitude;
+    out[0] *= ratio;
+    out[1] *= ratio;
+  }
+
+  /**
+   * Returns the x component of the stream outputs.
+   *
+   * @return A stream of x values.
+   */
+  public default InputStream x() {
+    double[] buffer = new double[2];
+    return () -> {
+      get(buffer);
+      return buffer[0];
+    };
+  }
+
+  /**
+   * Returns the y component of the stream outputs.
+   *
+   * @return A stream of y values.
+   */
+  public default InputStream y() {
+    double[] buffer = new double[2];
+    return () -> {
+      get(buffer);
+      return buffer[1];
+    };
+  }
+
+  /**
+   * Returns the magnitude of the stream outputs.
+   *
+   * @return A stream of magnitudes.
+   */
+  public default InputStream magnitude() {
+    double[] buffer = new double[2];
+    return () -> {
+      get(buffer);
+      return Math.hypot(buffer[0], buffer[1]);
+    };
+  }
+
+  /**
+   * Scales the stream outputs by a factor.
+   *
+   * @param factor A supplier of scaling factors.
+   * @return A scaled stream.
+   */
+  public default InputStream2d scale(DoubleSupplier factor) {
+    return out -> {
+      get(out);
+      double k = factor.getAsDouble();
+      out[0] *= k;
+      out[1] *= k;
+    };
+  }
+
+  /**
+   * Scales the stream outputs by a factor.
+   *
+   * @param factor A scaling factor.
+   * @return A scaled stream.
+   */
+  public default InputStream2d scale(double factor) {
+    return out -> {
+      get(out);
+      out[0] *= factor;
+      out[1] *= factor;
+    };
+  }
+
+  /**
+   * Negates the stream outputs.
+   *
+   * @return A stream scaled by -1.
+   */
+  public default InputStream2d negate() {
+    return scale(-1);
+  }
+
+  /**
+   * Raises the magnitude of the stream outputs to an exponent, keeping their direction.
+   *
+   * @param exponent The exponent to raise the magnitude to.
+   * @return An exponentiated stream.
+   */
+  public default InputStream2d pow(double exponent) {
+    return out -> {
+      get(out);
+      double magnitude = Math.hypot(out[0], out[1]);
+      rescale(out, magnitude, Math.pow(magnitude, exponent));
+    };
+  }
+
+  /**
+   * Radially deadbands the stream outputs by a minimum magnitude and scales their magnitude from 0
+   * to a maximum bound, keeping their direction.
+   *
+   * @param deadband The lower bound to deadband with.
+   * @param max The maximum magnitude to scale with.
+   * @return A deadbanded stream.
+   */
+  public default InputStream2d deadband(double deadband, double max) {
+    return out -> {
+      get(out);
+      double magnitude = Math.hypot(out[0], out[1]);
+      rescale(out, magnitude, MathUtil.applyDeadband(magnitude, deadband, max));
+    };
+  }
+
+  /**
+   * Clamps the magnitude of the stream outputs by a maximum bound, keeping their direction.
+   *
+   * @param magnitude The upper bound to clamp with.
+   * @return A clamped stream.
+   */
+  public default InputStream2d clamp(double magnitude) {
+    return out -> {
+      get(out);
+      double current = Math.hypot(out[0], out[1]);
+      if (current > magnitude) {
+        rescale(out, current, magnitude);
+      }
+    };
+  }
+
+  /**
+   * Rate limits the stream outputs, so that the vector changes by no more than a specified rate.
+   *
+   * <p>The limiter is seeded with the first polled value, so building the stream reads nothing.
+   *
+   * @param rate The maximum rate of change of the vector, in units / s.
+   * @return A rate limited stream.
+   */
+  public default InputStream2d rateLimit(double rate) {
+    double[] last = new double[2];
+    double[] lastTime = {Double.NaN};
+    return out -> {
+      get(out);
+      double time = MathSharedStore.getTimestamp();
+      if (Double.isNaN(lastTime[0])) {
+        lastTime[0] = time;
+        last[0] = out[0];
+        last[1] = out[1];
+        return;
+      }
+      double maxChange = rate * (time - lastTime[0]);
+      lastTime[0] = time;
+
+      double dx = out[0] - last[0];
+      double dy = out[1] - last[1];
+      double change = Math.hypot(dx, dy);
+      if (change > maxChange) {
+        double ratio = maxChange / change;
+        out[0] = last[0] + dx * ratio;
+        out[1] = last[1] + dy * ratio;
+      }
+      last[0] = out[0];
+      last[1] = out[1];
+    };
+  }
+
+  /**
+   * Rotates the stream outputs by an angle, such as to convert between robot and field relative
+   * inputs.
+   *
+   * @param rotation A supplier of the angle to rotate by.
+   * @return A rotated stream.
+   */
+  public default InputStream2d rotate(Supplier<Rotation2d> rotation) {
+    return out -> {
+      get(out);
+      Rotation2d angle = rotation.get();
+      double cos = angle.getCos();
+      double sin = angle.getSin();
+      double x = out[0];
+      double y = out[1];
+      out[0] = x * cos - y * sin;
+      out[1] = x * sin + y * cos;
+    };
+  }
+
+  /**
+   * Caches the output of this stream once per scheduler cycle.
+   *
+   * @return A stream with the same output as this one, computed once per cycle.
+   * @see InputStream#cached()
+   */
+  public default InputStream2d cached() {
+    long[] tick = {-1};
+    double[] value = new double[2];
+    return out -> {
+      long now = SchedulerTick.get();
+      if (tick[0] != now) {
+        tick[0] = now;
+        get(value);
+      }
+      out[0] = value[0];
+      out[1] = value[1];
+    };
+  }
+
+  /**
+   * Logs the magnitude of this stream's output to networktables every time it is polled.
+   *
+   * @param key The NetworkTables key to publish to.
+   * @return A stream with the same output as this one.
+   */
+  public default InputStream2d log(String key) {
+    DoublePublisher pub = NetworkTableInstance.getDefault().getDoubleTopic(key).publish();
+    return out -> {
+      get(out);
+      pub.set(Math.hypot(out[0], out[1]));
+    };
+  }
+}
@@ -0,0 +1,69 @@
+package org.sciborgs1155.lib;
+
+import edu.wpi.first.epilogue.Epilogue;
+import edu.wpi.first.epilogue.Logged.Importance;
+
+/**
+ * LogPolicy decides how often telemetry is logged, by priority tier.
+ *
+ * <ul>
+ *   <li>{@link Tier#CRITICAL} values are logged every tick.
+ *   <li>{@link Tier#DIAGNOSTIC} values are logged every {@link #DIAGNOSTIC_TICKS} ticks (10 Hz).
+ *   <li>{@link Tier#DEBUG} values are only logged while debug logging is enabled.
+ * </ul>
+ *
+ * <p>Monologue values logged imperatively should be guarded with {@link #shouldLog}. Epilogue
+ * values follow the same tiers through their {@link Importance}: CRITICAL, INFO and DEBUG map to
+ * CRITICAL, DIAGNOSTIC and DEBUG, by moving Epilogue's minimum importance every tick.
+ *
+ * <pre>
+ * LogPolicy.update(); // advances the tick, once per loop
+ * if (LogPolicy.shouldLog(Tier.DIAGNOSTIC)) log("module states", states);
+ * </pre>
+ */
+public final class LogPolicy {
+  /** A priority tier for logged values. */
+  public static enum Tier {
+    CRITICAL,
+    DIAGNOSTIC,
+    DEBUG,
+  }
+
+  /** The number of ticks between each log of diagnostic values. */
+  public static final int DIAGNOSTIC_TICKS = 5;
+
+  private static int tick = 0;
+  private static boolean debug = false;
+
+  private LogPolicy() {}
+
+  /** Advances to the next tick. This method should be called once per tick, before logging. */
+  public static void update() {
+    tick = (tick + 1) % DIAGNOSTIC_TICKS;
+    Epilogue.getConfig().minimumImportance =
+        debug ? Importance.DEBUG : tick == 0 ? Importance.INFO : Importance.CRITICAL;
+  }
+
+  /**
+   * Enables or disables logging of {@link Tier#DEBUG} values.
+   *
+   * @param enabled Whether to log debug values.
+   */
+  public static void setDebug(boolean enabled) {
+    debug = enabled;
+  }
+
+  /**
+   * Returns whether values of a tier should be logged this tick.
+   *
+   * @param tier The tier of the values.
+   * @return Whether to log them.
+   */
+  public static boolean shouldLog(Tier tier) {
+    return switch (tier) {
+      case CRITICAL -> true;
+      case DIAGNOSTIC -> debug || tick == 0;
+      case DEBUG -> debug;
+    };
+  }
+}
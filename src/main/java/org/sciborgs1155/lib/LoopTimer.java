@@ -0,0 +1,237 @@
+package org.sciborgs1155.lib;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LoopTimer measures how long each phase of the robot loop takes, so that a loop overrun can be
+ * traced back to the phase that caused it.
+ *
+ * <p>Every run of a phase is recorded into a fixed-size histogram. The p50, p99 and max of each
+ * phase are published to NetworkTables under "LoopTimer" (and so to the DataLog, which mirrors
+ * NetworkTables once {@code DataLogManager} is started) every {@link #PUBLISH_TICKS} ticks.
+ *
+ * <pre>
+ * LoopTimer.Phase phase = LoopTimer.phase("Drive"); // creates a phase, usually in a field
+ * phase.start(); // marks the start of the phase
+ * phase.stop(); // records the time since the phase was started
+ * addPeriodic(LoopTimer.timed("Vision", this::updateVision), PERIOD); // times a callback
+ * LoopTimer.update(); // publishes timings, once per tick
+ * </pre>
+ */
+public final class LoopTimer {
+  /** The number of ticks between each publish of timings. */
+  public static final int PUBLISH_TICKS = 50;
+
+  private static final NetworkTable base = NetworkTableInstance.getDefault().getTable("LoopTimer");
+
+  private static final Map<String, Phase> phases = new HashMap<>();
+  private static final List<Phase> phaseList = new ArrayList<>();
+  private static int ticks = 0;
+
+  /**
+   * Returns the phase with a name, creating it if it does not exist.
+   *
+   * @param name The name of the phase.
+   * @return The phase.
+   */
+  public static Phase phase(String name) {
+    Phase phase = phases.get(name);
+    if (phase == null) {
+      phase = new Phase(name);
+      phases.put(name, phase);
+      phaseList.add(phase);
+    }
+    return phase;
+  }
+
+  /**
+   * Wraps a runnable so that every run is timed as a phase.
+   *
+   * @param name The name of the phase.
+   * @param runnable The runnable to time.
+   * @return The timed runnable.
+   */
+  public static Runnable timed(String name, Runnable runnable) {
+    Phase phase = phase(name);
+    return () -> {
+      phase.start();
+      runnable.run();
+      phase.stop();
+    };
+  }
+
+  /**
+   * Wraps a command so that every call to its {@code execute()} is timed as a phase, named after
+   * the command.
+   *
+   * @param command The command to time.
+   * @return The timed command.
+   */
+  public static Command timed(Command command) {
+    Phase phase = phase(command.getName() + "/execute");
+    return new WrapperCommand(command) {
+      @Override
+      public void execute() {
+        phase.start();
+        super.execute();
+        phase.stop();
+      }
+    };
+  }
+
+  /**
+   * Publishes timings every {@link #PUBLISH_TICKS} calls. This method should be called once per
+   * tick.
+   */
+  public static void update() {
+    if (++ticks < PUBLISH_TICKS) {
+      return;
+    }
+    ticks = 0;
+    for (int i = 0; i < phaseList.size(); i++) {
+      phaseList.get(i).publish();
+    }
+  }
+
+  /** A timed phase of the robot loop. */
+  public static final class Phase {
+    private final Histogram histogram = new Histogram();
+    private final DoublePublisher p50;
+    private final DoublePublisher p99;
+    private final DoublePublisher max;
+
+    private long start;
+
+    private Phase(String name) {
+      NetworkTable table = base.getSubTable(name);
+      p50 = table.getDoubleTopic("p50 (ms)").publish();
+      p99 = table.getDoubleTopic("p99 (ms)").publish();
+      max = table.getDoubleTopic("max (ms)").publish();
+    }
+
+    /** Marks the start of a run of this phase. */
+    public void start() {
+      start = System.nanoTime();
+    }
+
+    /** Records the time since {@link #start()} was called. */
+    public void stop() {
+      histogram.record((System.nanoTime() - start) / 1000);
+    }
+
+    /** Publishes the timings recorded since the last publish, then resets them. */
+    private void publish() {
+      if (histogram.count() == 0) {
+        return;
+      }
+      p50.set(histogram.percentile(0.5) / 1000.0);
+      p99.set(histogram.percentile(0.99) / 1000.0);
+      max.set(histogram.max() / 1000.0);
+      histogram.reset();
+    }
+  }
+
+  /**
+   * A fixed-size histogram of durations in microseconds.
+   *
+   * <p>Values below 64 have their own bucket. Above that, every power of two is split into 32
+   * linear buckets, for a relative error of at most about 3%. Recording never allocates.
+   */
+  static final class Histogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int EXACT = 2 * SUB_BUCKETS;
+    private static final int MAX_EXPONENT = 31;
+    private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+    private final long[] counts = new long[index(MAX_VALUE) + 1];
+    private long count = 0;
+    private long max = 0;
+
+    /**
+     * Returns the bucket that a value falls in.
+     *
+     * @param value A non-negative value, no greater than {@link #MAX_VALUE}.
+     * @return The bucket's index.
+     */
+    private static int index(long value) {
+      if (value < EXACT) {
+        return (int) value;
+      }
+      int exponent = 63 - Long.numberOfLeadingZeros(value);
+      int sub = (int) (value >>> (exponent - SUB_BITS)) - SUB_BUCKETS;
+      return EXACT + (exponent - SUB_BITS - 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the smallest value in a bucket.
+     *
+     * @param index The bucket's index.
+     * @return The smallest value that falls in the bucket.
+     */
+    private static long lowest(int index) {
+      if (index < EXACT) {
+        return index;
+      }
+      int exponent = (index - EXACT) / SUB_BUCKETS + SUB_BITS + 1;
+      long sub = (index - EXACT) % SUB_BUCKETS + SUB_BUCKETS;
+      return sub << (exponent - SUB_BITS);
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value The value, in microseconds.
+     */
+    void record(long value) {
+      value = Math.max(0, Math.min(value, MAX_VALUE));
+      counts[index(value)]++;
+      count++;
+      max = Math.max(max, value);
+    }
+
+    /**
+     * Returns a percentile of the recorded values.
+     *
+     * @param percentile The percentile, from 0 to 1.
+     * @return The smallest value in the bucket containing the percentile, or 0 if empty.
+     */
+    long percentile(double percentile) {
+      long rank = Math.max(1, (long) Math.ceil(percentile * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return Math.min(lowest(i), max);
+        }
+      }
+      return 0;
+    }
+
+    /** Returns the largest recorded value. */
+    long max() {
+      return max;
+    }
+
+    /** Returns the number of recorded values. */
+    long count() {
+      return count;
+    }
+
+    /** Clears all recorded values. */
+    void reset() {
+      Arrays.fill(counts, 0);
+      count = 0;
+      max = 0;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package org.sciborgs1155.lib;
+
+import static edu.wpi.first.units.Units.Seconds;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusCode;
+import edu.wpi.first.units.measure.Time;
+import java.util.Arrays;
+import org.sciborgs1155.lib.FaultLogger.FaultType;
+
+/**
+ * PhoenixSignals refreshes the status signals of every Phoenix 6 device in a single batched call
+ * per tick, instead of one JNI round trip per getter.
+ *
+ * <pre>
+ * PhoenixSignals.register(position, velocity); // registers signals, usually in an IO constructor
+ * PhoenixSignals.refresh(); // refreshes all signals, once per tick before subsystems run
+ * position.getValueAsDouble(); // reads the value from the latest refresh
+ * </pre>
+ */
+public final class PhoenixSignals {
+  private static BaseStatusSignal[] signals = new BaseStatusSignal[0];
+
+  private static boolean synchronous = false;
+  private static double timeout = 0;
+
+  /**
+   * Registers status signals to be refreshed every tick.
+   *
+   * @param newSignals The signals to register.
+   */
+  public static void register(BaseStatusSignal... newSignals) {
+    int length = signals.length;
+    signals = Arrays.copyOf(signals, length + newSignals.length);
+    System.arraycopy(newSignals, 0, signals, length, newSignals.length);
+  }
+
+  /** Clears registered signals. */
+  public static void unregisterAll() {
+    signals = new BaseStatusSignal[0];
+  }
+
+  /**
+   * Waits for fresh CAN frames of every registered signal on each refresh, rather than using the
+   * latest frames received. This time-aligns all signals, but blocks the robot loop for up to the
+   * timeout.
+   *
+   * <p>All registered signals must be on the same CAN bus.
+   *
+   * @param maxWait The maximum time to wait for new frames.
+   */
+  public static void synchronize(Time maxWait) {
+    synchronous = true;
+    timeout = maxWait.in(Seconds);
+  }
+
+  /** Stops waiting for fresh CAN frames on each refresh. */
+  public static void desynchronize() {
+    synchronous = false;
+  }
+
+  /** Returns whether each refresh waits for fresh CAN frames. */
+  static boolean isSynchronized() {
+    return synchronous;
+  }
+
+  /**
+   * Refreshes all registered signals in one batched call. This method should be called once per
+   * tick, before any subsystems read their signals.
+   *
+   * @return The status of the refresh, which is also reported to FaultLogger if it failed.
+   */
+  public static StatusCode refresh() {
+    if (signals.length == 0) {
+      return StatusCode.OK;
+    }
+    StatusCode status =
+        synchronous
+            ? BaseStatusSignal.waitForAll(timeout, signals)
+            : BaseStatusSignal.refreshAll(signals);
+    if (!status.isOK()) {
+      FaultLogger.report("Phoenix Signals", status.getDescription(), FaultType.WARNING);
+    }
+    return status;
+  }
+}
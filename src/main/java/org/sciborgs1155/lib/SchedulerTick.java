@@ -0,0 +1,29 @@
+package org.sciborgs1155.lib;
+
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+
+/**
+ * Counts cycles of the {@link CommandScheduler}, so that values can be cached once per cycle.
+ *
+ * <p>The count is advanced explicitly, by {@link CommandRobot#robotPeriodic()} (and by {@link
+ * UnitTestingUtil#fastForward} in tests) just before each run of the scheduler.
+ */
+final class SchedulerTick {
+  private static long tick = 0;
+
+  private SchedulerTick() {}
+
+  /** Starts a new scheduler cycle. This must be called once, before each scheduler run. */
+  static void advance() {
+    tick++;
+  }
+
+  /**
+   * Returns the current scheduler cycle.
+   *
+   * @return The number of scheduler cycles that have started.
+   */
+  static long get() {
+    return tick;
+  }
+}
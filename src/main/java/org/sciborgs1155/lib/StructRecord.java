@@ -0,0 +1,145 @@
+package org.sciborgs1155.lib;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.RawLogEntry;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A fixed-layout binary record, appended to a {@link DataLog} as a struct entry.
+ *
+ * <p>The record is packed into a preallocated direct buffer in the field order of its schema, and
+ * appended in one call, so writing a record never allocates. Log viewers decode it with the schema
+ * that is published alongside the entry.
+ *
+ * <pre>
+ * StructRecord record =
+ *     StructRecord.builder("Example").addDouble("time").addDoubles("wheels", 4).build(log, "/Ex");
+ * record.put(time).put(wheels); // packs values in schema order
+ * record.append(); // appends the packed record to the log
+ * </pre>
+ */
+public final class StructRecord {
+  private final String schema;
+  private final int size;
+  private final ByteBuffer buffer;
+  private final RawLogEntry entry;
+
+  private StructRecord(DataLog log, String key, String type, String schema, int size) {
+    this.schema = schema;
+    this.size = size;
+    buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+
+    String typeString = "struct:" + type;
+    if (!log.hasSchema(typeString)) {
+      log.addSchema(typeString, "structschema", schema);
+    }
+    entry = new RawLogEntry(log, key, "", typeString);
+  }
+
+  /**
+   * Starts building the layout of a record.
+   *
+   * @param type The name of the struct type.
+   * @return A builder for the record's layout.
+   */
+  public static Builder builder(String type) {
+    return new Builder(type);
+  }
+
+  /**
+   * Packs a double as the next field of the record.
+   *
+   * @param value The value to pack.
+   * @return This record.
+   */
+  public StructRecord put(double value) {
+    buffer.putDouble(value);
+    return this;
+  }
+
+  /**
+   * Packs doubles as the next fields of the record.
+   *
+   * @param values The values to pack.
+   * @return This record.
+   */
+  public StructRecord put(double... values) {
+    for (double value : values) {
+      buffer.putDouble(value);
+    }
+    return this;
+  }
+
+  /**
+   * Appends the packed record to the log, and starts packing the next record.
+   *
+   * @throws IllegalStateException If the record was not completely packed.
+   */
+  public void append() {
+    if (buffer.position() != size) {
+      int packed = buffer.position();
+      buffer.clear();
+      throw new IllegalStateException("Packed " + packed + " of " + size + " bytes");
+    }
+    entry.append(buffer, 0, size);
+    buffer.clear();
+  }
+
+  /** Returns the struct schema of the record. */
+  public String schema() {
+    return schema;
+  }
+
+  /** Returns the size of the record, in bytes. */
+  public int size() {
+    return size;
+  }
+
+  /** Records the fields of a {@link StructRecord}, in order. */
+  public static final class Builder {
+    private final String type;
+    private final StringBuilder schema = new StringBuilder();
+    private int size = 0;
+
+    private Builder(String type) {
+      this.type = type;
+    }
+
+    /**
+     * Adds a double field.
+     *
+     * @param name The name of the field.
+     * @return This builder.
+     */
+    public Builder addDouble(String name) {
+      schema.append("double ").append(name).append(';');
+      size += Double.BYTES;
+      return this;
+    }
+
+    /**
+     * Adds a fixed-length array of doubles.
+     *
+     * @param name The name of the field.
+     * @param length The number of doubles.
+     * @return This builder.
+     */
+    public Builder addDoubles(String name, int length) {
+      schema.append("double ").append(name).append('[').append(length).append("];");
+      size += Double.BYTES * length;
+      return this;
+    }
+
+    /**
+     * Creates the record, publishing its schema and entry to a log.
+     *
+     * @param log The log to append records to.
+     * @param key The name of the log entry.
+     * @return The record.
+     */
+    public StructRecord build(DataLog log, String key) {
+      return new StructRecord(log, key, type, schema.toString(), size);
+    }
+  }
+}
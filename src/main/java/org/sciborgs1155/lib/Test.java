@@ -43,12 +43,22 @@ public record Test(Command testCommand, Set<Assertion> assertions) {
     return c;
   }
 
+  /**
+   * Creates a command from a Test, for running it as a unit test.
+   *
+   * @param test a Test
+   * @return a command that runs the testCommand in test and then fails on any unmet assertion
+   */
+  public static Command toUnitTestCommand(Test test) {
+    return toCommand(test, true);
+  }
+
   /**
    * Runs a unit test based on a Test.
    *
    * @param test
    */
   public static void runUnitTest(Test test) {
-    runToCompletion(toCommand(test, true));
+    runToCompletion(toUnitTestCommand(test));
   }
 }
@@ -0,0 +1,230 @@
+package org.sciborgs1155.lib;
+
+import edu.wpi.first.math.MathUtil;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A pregenerated trajectory for both alliances, stored in a compact binary file and read through a
+ * memory map.
+ *
+ * <p>The file is a header followed by the blue samples, then the red samples. Each sample is seven
+ * little-endian doubles: time, x, y, and heading, then the field-relative x, y, and angular
+ * velocities. Samples are only decoded when they are interpolated, so opening a file is cheap
+ * regardless of its length, and pages are only loaded as the trajectory is followed.
+ *
+ * <pre>
+ * TrajectoryFile file = TrajectoryFile.open(path);
+ * TrajectoryFile.Side side = file.side(AllianceTracker.isRed());
+ * TrajectoryFile.Sample sample = new TrajectoryFile.Sample();
+ * side.sample(timer.get(), sample); // reuses the sample, rather than allocating one
+ * </pre>
+ */
+public final class TrajectoryFile {
+  /** The extension of trajectory files. */
+  public static final String EXTENSION = ".traj";
+
+  static final int MAGIC = 0x4A415254; // "TRAJ", little-endian
+  static final int VERSION = 1;
+  static final int HEADER = 5 * Integer.BYTES;
+  static final int SAMPLE = 7 * Double.BYTES;
+
+  private static final int RESET_ODOMETRY = 1;
+
+  /** A state along a trajectory, which is mutable so that it can be reused. */
+  public static final class Sample {
+    public double time;
+    public double x;
+    public double y;
+    public double heading;
+    public double vx;
+    public double vy;
+    public double omega;
+
+    public Sample() {}
+
+    public Sample(
+        double time, double x, double y, double heading, double vx, double vy, double omega) {
+      this.time = time;
+      this.x = x;
+      this.y = y;
+      this.heading = heading;
+      this.vx = vx;
+      this.vy = vy;
+      this.omega = omega;
+    }
+  }
+
+  /** The trajectory for one alliance. */
+  public final class Side {
+    private final int start;
+    private final int count;
+
+    private Side(int start, int count) {
+      this.start = start;
+      this.count = count;
+    }
+
+    /** Returns the number of samples. */
+    public int count() {
+      return count;
+    }
+
+    /** Returns how long the trajectory takes, in seconds. */
+    public double duration() {
+      return time(count - 1);
+    }
+
+    /**
+     * Decodes a sample, without interpolating.
+     *
+     * @param index The index of the sample.
+     * @param out The sample to write into.
+     * @return The written sample.
+     */
+    public Sample get(int index, Sample out) {
+      int offset = start + index * SAMPLE;
+      out.time = buffer.getDouble(offset);
+      out.x = buffer.getDouble(offset + 8);
+      out.y = buffer.getDouble(offset + 16);
+      out.heading = buffer.getDouble(offset + 24);
+      out.vx = buffer.getDouble(offset + 32);
+      out.vy = buffer.getDouble(offset + 40);
+      out.omega = buffer.getDouble(offset + 48);
+      return out;
+    }
+
+    /**
+     * Interpolates the state at a time, which is clamped to the trajectory.
+     *
+     * @param time The time since the trajectory started, in seconds.
+     * @param out The sample to write into.
+     * @return The written sample.
+     */
+    public Sample sample(double time, Sample out) {
+      if (time <= 0 || count == 1) {
+        return get(0, out);
+      }
+      if (time >= duration()) {
+        return get(count - 1, out);
+      }
+      // the last sample at or before the time
+      int low = 0;
+      int high = count - 1;
+      while (low < high) {
+        int mid = (low + high + 1) >>> 1;
+        if (time(mid) <= time) {
+          low = mid;
+        } else {
+          high = mid - 1;
+        }
+      }
+      int a = start + low * SAMPLE;
+      int b = a + SAMPLE;
+      double t = (time - buffer.getDouble(a)) / (buffer.getDouble(b) - buffer.getDouble(a));
+      out.time = time;
+      out.x = lerp(a, b, 8, t);
+      out.y = lerp(a, b, 16, t);
+      double heading = buffer.getDouble(a + 24);
+      out.heading = heading + MathUtil.angleModulus(buffer.getDouble(b + 24) - heading) * t;
+      out.vx = lerp(a, b, 32, t);
+      out.vy = lerp(a, b, 40, t);
+      out.omega = lerp(a, b, 48, t);
+      return out;
+    }
+
+    private double time(int index) {
+      return buffer.getDouble(start + index * SAMPLE);
+    }
+
+    private double lerp(int a, int b, int field, double t) {
+      double from = buffer.getDouble(a + field);
+      return from + (buffer.getDouble(b + field) - from) * t;
+    }
+  }
+
+  private final ByteBuffer buffer;
+  private final boolean resetOdometry;
+  private final Side blue;
+  private final Side red;
+
+  private TrajectoryFile(Path path, ByteBuffer buffer) throws IOException {
+    this.buffer = buffer;
+    if (buffer.limit() < HEADER || buffer.getInt(0) != MAGIC) {
+      throw new IOException(path + " is not a trajectory file");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IOException(path + " has unsupported trajectory version " + buffer.getInt(4));
+    }
+    resetOdometry = (buffer.getInt(8) & RESET_ODOMETRY) != 0;
+    int blueCount = buffer.getInt(12);
+    int redCount = buffer.getInt(16);
+    if (blueCount < 1 || redCount < 1) {
+      throw new IOException(path + " has an empty trajectory");
+    }
+    if (buffer.limit() != HEADER + (blueCount + redCount) * SAMPLE) {
+      throw new IOException(path + " is truncated");
+    }
+    blue = new Side(HEADER, blueCount);
+    red = new Side(HEADER + blueCount * SAMPLE, redCount);
+  }
+
+  /**
+   * Maps a trajectory file. Its samples are not read until they are used.
+   *
+   * @param path The path to the file.
+   * @return The mapped file.
+   * @throws IOException If the file cannot be read or is not a trajectory file.
+   */
+  public static TrajectoryFile open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      return new TrajectoryFile(path, buffer.order(ByteOrder.LITTLE_ENDIAN));
+    }
+  }
+
+  /**
+   * Writes a trajectory file.
+   *
+   * @param path The path to write to.
+   * @param resetOdometry Whether following the trajectory should start by resetting odometry.
+   * @param blue The samples for the blue alliance, in order of time.
+   * @param red The samples for the red alliance, in order of time.
+   * @throws IOException If the file cannot be written.
+   */
+  public static void write(Path path, boolean resetOdometry, List<Sample> blue, List<Sample> red)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER + (blue.size() + red.size()) * SAMPLE);
+    buffer.order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC).putInt(VERSION).putInt(resetOdometry ? RESET_ODOMETRY : 0);
+    buffer.putInt(blue.size()).putInt(red.size());
+    for (List<Sample> samples : List.of(blue, red)) {
+      for (Sample s : samples) {
+        buffer.putDouble(s.time).putDouble(s.x).putDouble(s.y).putDouble(s.heading);
+        buffer.putDouble(s.vx).putDouble(s.vy).putDouble(s.omega);
+      }
+    }
+    Files.write(path, buffer.array());
+  }
+
+  /** Returns whether following the trajectory should start by resetting odometry. */
+  public boolean resetOdometry() {
+    return resetOdometry;
+  }
+
+  /**
+   * Returns the trajectory for an alliance.
+   *
+   * @param red Whether the alliance is red.
+   * @return The trajectory for that alliance.
+   */
+  public Side side(boolean red) {
+    return red ? this.red : blue;
+  }
+}
@@ -12,14 +12,22 @@ import edu.wpi.first.wpilibj2.command.CommandScheduler;
 public class UnitTestingUtil {
   public static final Time TICK_RATE = Seconds.of(0.02);
 
-  /** Sets up DS and initializes HAL with default values and asserts that it doesn't fail. */
+  /**
+   * Sets up DS and initializes HAL with default values and asserts that it doesn't fail.
+   *
+   * <p>The simulated clock is paused, so it only advances when stepped by {@link #fastForward}.
+   * Tests then run as fast as the CPU allows, and do not depend on how long they take in real time.
+   */
   public static void setupTests() {
     assert HAL.initialize(500, 0);
+    SimHooks.pauseTiming();
     DriverStationSim.setEnabled(true);
     DriverStationSim.setTest(true);
     DriverStationSim.notifyNewData();
     FaultLogger.clear();
+    FaultLogger.stopPolling();
     FaultLogger.unregisterAll();
+    PhoenixSignals.unregisterAll();
   }
 
   /**
@@ -42,6 +50,7 @@ public class UnitTestingUtil {
    */
   public static void fastForward(int ticks) {
     for (int i = 0; i < ticks; i++) {
+      SchedulerTick.advance();
       CommandScheduler.getInstance().run();
       SimHooks.stepTiming(TICK_RATE.in(Seconds));
     }
@@ -71,6 +80,7 @@ public class UnitTestingUtil {
    */
   public static void run(Command command) {
     command.schedule();
+    SchedulerTick.advance();
     CommandScheduler.getInstance().run();
   }
 
@@ -9,8 +9,8 @@ import edu.wpi.first.units.measure.Distance;
 import edu.wpi.first.units.measure.Mass;
 import edu.wpi.first.units.measure.MomentOfInertia;
 import edu.wpi.first.units.measure.Time;
-import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import org.sciborgs1155.lib.AllianceTracker;
 import org.sciborgs1155.robot.drive.DriveConstants;
 
 /**
@@ -26,12 +26,12 @@ public class Constants {
   // TODO: Modify as needed.
   /** Returns the robot's alliance. */
   public static Alliance alliance() {
-    return DriverStation.getAlliance().orElse(Alliance.Blue);
+    return AllianceTracker.alliance();
   }
 
   /** Returns the rotation of the robot's alliance with respect to the origin. */
   public static Rotation2d allianceRotation() {
-    return Rotation2d.fromRotations(alliance() == Alliance.Blue ? 0 : 0.5);
+    return AllianceTracker.rotation();
   }
 
   /** Describes physical properites of the robot. */
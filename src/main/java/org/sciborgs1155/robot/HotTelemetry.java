@@ -0,0 +1,123 @@
+package org.sciborgs1155.robot;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.Optional;
+import org.sciborgs1155.lib.StructRecord;
+import org.sciborgs1155.robot.drive.Drive;
+import org.sciborgs1155.robot.elevator.Elevator;
+
+/**
+ * Writes a fixed binary record of the robot's most important state to the DataLog every tick.
+ *
+ * <p>The record is a single struct entry, {@link #KEY}, so a full match of drive and elevator
+ * state costs one append per tick rather than a serialized object per value.
+ */
+public final class HotTelemetry {
+  /** The name of the log entry. */
+  public static final String KEY = "/Telemetry/Hot";
+
+  static final int MODULES = 4;
+
+  // The index of each field within a record, in schema order
+  static final int TIMESTAMP = 0;
+  static final int MODULE_POSITION = 1;
+  static final int MODULE_VELOCITY = MODULE_POSITION + MODULES;
+  static final int MODULE_ANGLE = MODULE_VELOCITY + MODULES;
+  static final int SETPOINT_VELOCITY = MODULE_ANGLE + MODULES;
+  static final int SETPOINT_ANGLE = SETPOINT_VELOCITY + MODULES;
+  static final int GYRO_YAW = SETPOINT_ANGLE + MODULES;
+  static final int GYRO_RATE = GYRO_YAW + 1;
+  static final int POSE_X = GYRO_RATE + 1;
+  static final int POSE_Y = POSE_X + 1;
+  static final int POSE_THETA = POSE_Y + 1;
+  static final int ELEVATOR_POSITION = POSE_THETA + 1;
+  static final int ELEVATOR_VELOCITY = ELEVATOR_POSITION + 1;
+  static final int ELEVATOR_SETPOINT = ELEVATOR_VELOCITY + 1;
+  static final int LOOP_TIME = ELEVATOR_SETPOINT + 1;
+  static final int FIELDS = LOOP_TIME + 1;
+
+  private final Drive drive;
+  private final Optional<Elevator> elevator;
+  private final StructRecord record;
+
+  private final double[] positions = new double[MODULES];
+  private final double[] velocities = new double[MODULES];
+  private final double[] angles = new double[MODULES];
+  private final double[] setpointVelocities = new double[MODULES];
+  private final double[] setpointAngles = new double[MODULES];
+
+  /**
+   * Creates a hot telemetry writer.
+   *
+   * @param log The log to write to.
+   * @param drive The drivetrain.
+   * @param elevator The elevator, if the robot has one.
+   */
+  public HotTelemetry(DataLog log, Drive drive, Optional<Elevator> elevator) {
+    this.drive = drive;
+    this.elevator = elevator;
+    record =
+        StructRecord.builder("HotTelemetry")
+            .addDouble("timestamp")
+            .addDoubles("module_position", MODULES)
+            .addDoubles("module_velocity", MODULES)
+            .addDoubles("module_angle", MODULES)
+            .addDoubles("setpoint_velocity", MODULES)
+            .addDoubles("setpoint_angle", MODULES)
+            .addDouble("gyro_yaw")
+            .addDouble("gyro_rate")
+            .addDouble("pose_x")
+            .addDouble("pose_y")
+            .addDouble("pose_theta")
+            .addDouble("elevator_position")
+            .addDouble("elevator_velocity")
+            .addDouble("elevator_setpoint")
+            .addDouble("loop_time")
+            .build(log, KEY);
+  }
+
+  /**
+   * Writes one record.
+   *
+   * @param loopTime The time taken by this tick's loop so far, in seconds.
+   */
+  public void write(double loopTime) {
+    SwerveModulePosition[] modulePositions = drive.modulePositions();
+    SwerveModuleState[] states = drive.moduleStates();
+    SwerveModuleState[] setpoints = drive.moduleSetpoints();
+    for (int i = 0; i < MODULES; i++) {
+      positions[i] = modulePositions[i].distanceMeters;
+      velocities[i] = states[i].speedMetersPerSecond;
+      angles[i] = states[i].angle.getRadians();
+      setpointVelocities[i] = setpoints[i].speedMetersPerSecond;
+      setpointAngles[i] = setpoints[i].angle.getRadians();
+    }
+    Pose2d pose = drive.pose();
+
+    record
+        .put(Timer.getFPGATimestamp())
+        .put(positions)
+        .put(velocities)
+        .put(angles)
+        .put(setpointVelocities)
+        .put(setpointAngles)
+        .put(drive.gyroYaw())
+        .put(drive.gyroRate())
+        .put(pose.getX())
+        .put(pose.getY())
+        .put(pose.getRotation().getRadians());
+    if (elevator.isPresent()) {
+      record
+          .put(elevator.get().pos())
+          .put(elevator.get().vel())
+          .put(elevator.get().getPosSetpoint());
+    } else {
+      record.put(Double.NaN).put(Double.NaN).put(Double.NaN);
+    }
+    record.put(loopTime).append();
+  }
+}
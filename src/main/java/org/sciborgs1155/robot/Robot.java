@@ -21,14 +21,20 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
 import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import java.util.Optional;
 import java.util.Set;
 import monologue.Annotations.Log;
 import monologue.Logged;
 import monologue.Monologue;
 import org.littletonrobotics.urcl.URCL;
+import org.sciborgs1155.lib.AllianceTracker;
 import org.sciborgs1155.lib.CommandRobot;
 import org.sciborgs1155.lib.FaultLogger;
+import org.sciborgs1155.lib.FieldTelemetry;
+import org.sciborgs1155.lib.InputPipeline;
 import org.sciborgs1155.lib.InputStream;
+import org.sciborgs1155.lib.InputStream2d;
+import org.sciborgs1155.lib.LoopTimer;
 import org.sciborgs1155.lib.Test;
 import org.sciborgs1155.robot.Ports.OI;
 import org.sciborgs1155.robot.commands.Autos;
@@ -57,6 +63,10 @@ public class Robot extends CommandRobot implements Logged {
 
   @Log.NT private double speedMultiplier = Constants.FULL_SPEED_MULTIPLIER;
 
+  // LOGGING
+  private HotTelemetry hotTelemetry;
+  private final LoopTimer.Phase hotTelemetryTimer = LoopTimer.phase("HotTelemetry");
+
   /** The robot contains subsystems, OI devices, and commands. */
   public Robot() {
     super(PERIOD.in(Seconds));
@@ -69,8 +79,16 @@ public class Robot extends CommandRobot implements Logged {
     // TODO: Add configs for all additional libraries, components, intersubsystem interaction
     // Configure logging with DataLogManager, Monologue, URCL, and FaultLogger
     DataLogManager.start();
+    hotTelemetry = new HotTelemetry(DataLogManager.getLog(), drive, Optional.empty());
+    drive.recordOdometry(DataLogManager.getLog());
+    vision.record(DataLogManager.getLog());
     Epilogue.bind(this);
-    addPeriodic(FaultLogger::update, 2);
+    FaultLogger.startPolling(Seconds.of(2));
+    AllianceTracker.start();
+    addPeriodic(LoopTimer.timed("FaultLogger", FaultLogger::update), 2);
+
+    // Keep dashboard field telemetry off the network during matches
+    FieldTelemetry.disableDuringMatches(true);
 
     SmartDashboard.putData(CommandScheduler.getInstance());
     // Log PDH
@@ -78,7 +96,9 @@ public class Robot extends CommandRobot implements Logged {
     FaultLogger.register(pdh);
 
     // Configure pose estimation updates every tick
-    addPeriodic(() -> drive.updateEstimates(vision.estimatedGlobalPoses()), PERIOD.in(Seconds));
+    addPeriodic(
+        LoopTimer.timed("Vision", () -> drive.updateEstimates(vision.estimatedGlobalPoses())),
+        PERIOD.in(Seconds));
 
     RobotController.setBrownoutVoltage(6.0);
 
@@ -88,45 +108,49 @@ public class Robot extends CommandRobot implements Logged {
       pdh.setSwitchableChannel(true);
     } else {
       DriverStation.silenceJoystickConnectionWarning(true);
-      addPeriodic(() -> vision.simulationPeriodic(drive.pose()), PERIOD.in(Seconds));
+      addPeriodic(
+          LoopTimer.timed("Vision Sim", () -> vision.simulationPeriodic(drive.simulatedPose())),
+          PERIOD.in(Seconds));
     }
   }
 
+  @Override
+  public void robotPeriodic() {
+    long start = System.nanoTime();
+    super.robotPeriodic();
+    hotTelemetryTimer.start();
+    hotTelemetry.write((System.nanoTime() - start) / 1e9);
+    hotTelemetryTimer.stop();
+  }
+
   /** Configures trigger -> command bindings. */
   private void configureBindings() {
     // x and y are switched: we use joystick Y axis to control field x motion
-    InputStream x = InputStream.of(driver::getLeftY).negate();
-    InputStream y = InputStream.of(driver::getLeftX).negate();
-
     // Apply speed multiplier, deadband, square inputs, and scale translation to max speed
-    InputStream r =
-        InputStream.hypot(x, y)
+    InputStream2d velocity =
+        InputStream2d.of(driver::getLeftY, driver::getLeftX)
+            .negate()
             .log("Robot/raw joystick")
             .scale(() -> speedMultiplier)
             .clamp(1.0)
             .deadband(Constants.DEADBAND, 1.0)
-            .signedPow(2.0)
+            .pow(2.0)
             .log("Robot/processed joystick")
             .scale(MAX_SPEED.in(MetersPerSecond));
 
-    InputStream theta = InputStream.atan(x, y);
-
-    // Split x and y components of translation input
-    x = r.scale(theta.map(Math::cos)); // .rateLimit(MAX_ACCEL.in(MetersPerSecondPerSecond));
-    y = r.scale(theta.map(Math::sin)); // .rateLimit(MAX_ACCEL.in(MetersPerSecondPerSecond));
-
     // Apply speed multiplier, deadband, square inputs, and scale rotation to max teleop speed
     InputStream omega =
-        InputStream.of(driver::getRightX)
+        InputPipeline.of(driver::getRightX)
             .negate()
             .scale(() -> speedMultiplier)
             .clamp(1.0)
             .deadband(DEADBAND, 1.0)
             .signedPow(2.0)
             .scale(TELEOP_ANGULAR_SPEED.in(RadiansPerSecond))
-            .rateLimit(MAX_ANGULAR_ACCEL.in(RadiansPerSecond.per(Second)));
+            .rateLimit(MAX_ANGULAR_ACCEL.in(RadiansPerSecond.per(Second)))
+            .build();
 
-    drive.setDefaultCommand(drive.drive(x, y, omega));
+    drive.setDefaultCommand(LoopTimer.timed(drive.drive(velocity, omega).withName("Teleop Drive")));
 
     autonomous().whileTrue(Commands.defer(autos::getSelected, Set.of(drive)).asProxy());
 
@@ -170,6 +194,7 @@ public class Robot extends CommandRobot implements Logged {
   @Override
   public void close() {
     super.close();
+    vision.close();
     try {
       drive.close();
     } catch (Exception e) {
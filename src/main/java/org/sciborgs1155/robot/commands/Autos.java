@@ -3,7 +3,6 @@ package org.sciborgs1155.robot.commands;
 import static edu.wpi.first.units.Units.KilogramSquareMeters;
 import static edu.wpi.first.units.Units.Kilograms;
 import static org.sciborgs1155.robot.Constants.Robot.*;
-import static org.sciborgs1155.robot.Constants.alliance;
 import static org.sciborgs1155.robot.drive.DriveConstants.MAX_SPEED;
 import static org.sciborgs1155.robot.drive.DriveConstants.MODULE_OFFSET;
 import static org.sciborgs1155.robot.drive.DriveConstants.WHEEL_COF;
@@ -14,13 +13,24 @@ import com.pathplanner.lib.config.ModuleConfig;
 import com.pathplanner.lib.config.PIDConstants;
 import com.pathplanner.lib.config.RobotConfig;
 import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
 import edu.wpi.first.math.system.plant.DCMotor;
-import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.Filesystem;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SendableChooser;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.Commands;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Optional;
+import org.sciborgs1155.lib.AllianceTracker;
+import org.sciborgs1155.lib.FaultLogger;
+import org.sciborgs1155.lib.FaultLogger.FaultType;
+import org.sciborgs1155.lib.TrajectoryFile;
 import org.sciborgs1155.robot.drive.Drive;
 import org.sciborgs1155.robot.drive.DriveConstants.ControlMode;
 import org.sciborgs1155.robot.drive.DriveConstants.ModuleConstants.Driving;
@@ -28,8 +38,45 @@ import org.sciborgs1155.robot.drive.DriveConstants.Rotation;
 import org.sciborgs1155.robot.drive.DriveConstants.Translation;
 
 public class Autos {
+  /** The directory within deploy holding pregenerated trajectories, named after their autos. */
+  public static final String TRAJECTORIES = "trajectories";
+
   private static Optional<Rotation2d> rotation = Optional.empty();
 
+  /** Returns the physical configuration of the robot, used to generate trajectories. */
+  public static RobotConfig robotConfig() {
+    return new RobotConfig(
+        MASS.in(Kilograms),
+        MOI.in(KilogramSquareMeters),
+        new ModuleConfig(
+            WHEEL_RADIUS,
+            MAX_SPEED,
+            WHEEL_COF,
+            DCMotor.getNEO(1).withReduction(Driving.GEARING),
+            Driving.CURRENT_LIMIT,
+            1),
+        MODULE_OFFSET);
+  }
+
+  /**
+   * Returns the path of an auto's pregenerated trajectory, which may not exist.
+   *
+   * @param auto The name of the auto.
+   * @return The path within deploy.
+   */
+  public static Path trajectoryPath(String auto) {
+    return Filesystem.getDeployDirectory()
+        .toPath()
+        .resolve(TRAJECTORIES)
+        .resolve(auto + TrajectoryFile.EXTENSION);
+  }
+
+  /**
+   * Configures PathPlanner, and returns a chooser of every auto.
+   *
+   * <p>Autos with a pregenerated trajectory follow it, so they are neither generated at startup nor
+   * flipped for the red alliance at runtime. The rest are built by PathPlanner.
+   */
   public static SendableChooser<Command> configureAutos(Drive drive) {
     AutoBuilder.configure(
         drive::pose,
@@ -39,24 +86,79 @@ public class Autos {
         new PPHolonomicDriveController(
             new PIDConstants(Translation.P, Translation.I, Translation.D),
             new PIDConstants(Rotation.P, Rotation.I, Rotation.D)),
-        new RobotConfig(
-            MASS.in(Kilograms),
-            MOI.in(KilogramSquareMeters),
-            new ModuleConfig(
-                WHEEL_RADIUS,
-                MAX_SPEED,
-                WHEEL_COF,
-                DCMotor.getNEO(1).withReduction(Driving.GEARING),
-                Driving.CURRENT_LIMIT,
-                1),
-            MODULE_OFFSET),
-        () -> alliance() == Alliance.Red,
+        robotConfig(),
+        AllianceTracker::isRed,
         drive);
 
     PPHolonomicDriveController.overrideRotationFeedback(() -> rotation.get().getRadians());
 
-    SendableChooser<Command> chooser = AutoBuilder.buildAutoChooser();
+    SendableChooser<Command> chooser = new SendableChooser<>();
+    chooser.setDefaultOption("None", Commands.none());
+    for (String name : AutoBuilder.getAllAutoNames()) {
+      chooser.addOption(name, auto(drive, name));
+    }
     chooser.addOption("no auto", Commands.none());
     return chooser;
   }
+
+  /** Returns an auto, following its pregenerated trajectory if there is one. */
+  private static Command auto(Drive drive, String name) {
+    Path path = trajectoryPath(name);
+    if (Files.exists(path)) {
+      try {
+        return follow(drive, TrajectoryFile.open(path)).withName(name);
+      } catch (IOException e) {
+        FaultLogger.report(
+            "Autos", "could not open " + path + ": " + e.getMessage(), FaultType.WARNING);
+      }
+    }
+    return AutoBuilder.buildAuto(name);
+  }
+
+  /**
+   * Follows a pregenerated trajectory for the robot's alliance, correcting for error in its pose.
+   *
+   * @param drive The drivetrain.
+   * @param trajectory The trajectory to follow.
+   * @return A command that follows the trajectory until its end, then stops.
+   */
+  public static Command follow(Drive drive, TrajectoryFile trajectory) {
+    PIDController x = new PIDController(Translation.P, Translation.I, Translation.D);
+    PIDController y = new PIDController(Translation.P, Translation.I, Translation.D);
+    PIDController theta = new PIDController(Rotation.P, Rotation.I, Rotation.D);
+    theta.enableContinuousInput(-Math.PI, Math.PI);
+    TrajectoryFile.Side[] side = new TrajectoryFile.Side[1];
+    TrajectoryFile.Sample sample = new TrajectoryFile.Sample();
+    Timer timer = new Timer();
+    return drive
+        .run(
+            () -> {
+              side[0].sample(timer.get(), sample);
+              Pose2d pose = drive.pose();
+              drive.setChassisSpeeds(
+                  ChassisSpeeds.fromFieldRelativeSpeeds(
+                      sample.vx + x.calculate(pose.getX(), sample.x),
+                      sample.vy + y.calculate(pose.getY(), sample.y),
+                      sample.omega
+                          + theta.calculate(pose.getRotation().getRadians(), sample.heading),
+                      pose.getRotation()),
+                  ControlMode.CLOSED_LOOP_VELOCITY);
+            })
+        .beforeStarting(
+            () -> {
+              side[0] = trajectory.side(AllianceTracker.isRed());
+              x.reset();
+              y.reset();
+              theta.reset();
+              if (trajectory.resetOdometry()) {
+                side[0].get(0, sample);
+                drive.resetOdometry(
+                    new Pose2d(sample.x, sample.y, Rotation2d.fromRadians(sample.heading)));
+              }
+              timer.restart();
+            })
+        .until(() -> timer.hasElapsed(side[0].duration()))
+        .finallyDo(
+            () -> drive.setChassisSpeeds(new ChassisSpeeds(), ControlMode.OPEN_LOOP_VELOCITY));
+  }
 }
@@ -29,14 +29,17 @@ import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.util.datalog.DataLog;
 import edu.wpi.first.wpilibj.smartdashboard.Field2d;
-import edu.wpi.first.wpilibj.smartdashboard.FieldObject2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine.Direction;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.DoubleSupplier;
@@ -49,7 +52,12 @@ import monologue.Annotations.Log;
 import monologue.Logged;
 import org.photonvision.EstimatedRobotPose;
 import org.sciborgs1155.lib.Assertion;
+import org.sciborgs1155.lib.FieldTelemetry;
 import org.sciborgs1155.lib.InputStream;
+import org.sciborgs1155.lib.InputStream2d;
+import org.sciborgs1155.lib.LogPolicy;
+import org.sciborgs1155.lib.LogPolicy.Tier;
+import org.sciborgs1155.lib.LoopTimer;
 import org.sciborgs1155.lib.Test;
 import org.sciborgs1155.robot.Constants;
 import org.sciborgs1155.robot.Robot;
@@ -67,6 +75,15 @@ public class Drive extends SubsystemBase implements Logged, AutoCloseable {
 
   @IgnoreLogged private final List<ModuleIO> modules;
 
+  // Module states, setpoints, and positions, updated in place once per tick
+  private final SwerveModuleState[] states;
+  private final SwerveModuleState[] setpoints;
+  private final SwerveModulePosition[] positions;
+
+  // Chassis speeds as of the start of this tick, shared by control and logging
+  private ChassisSpeeds robotRelativeSpeeds = new ChassisSpeeds();
+  private ChassisSpeeds fieldRelativeSpeeds = new ChassisSpeeds();
+
   // Gyro, navX2-MXP
   private final GyroIO gyro;
   private static Rotation2d simRotation = new Rotation2d();
@@ -76,8 +93,22 @@ public class Drive extends SubsystemBase implements Logged, AutoCloseable {
   // Odometry and pose estimation
   private final SwerveDrivePoseEstimator odometry;
 
+  // High-frequency odometry samples, from a sampling thread on the real robot or from replay
+  private Optional<OdometrySource> odometrySource;
+
+  private final LoopTimer.Phase periodicTimer = LoopTimer.phase("Drive/periodic");
+
   @Log.NT private final Field2d field2d = new Field2d();
-  private final FieldObject2d[] modules2d;
+  private final FieldTelemetry fieldTelemetry =
+      new FieldTelemetry(
+          field2d,
+          FIELD_TELEMETRY_PERIOD,
+          FIELD_TELEMETRY_TRANSLATION.in(Meters),
+          FIELD_TELEMETRY_ROTATION.in(Radians));
+  private final FieldTelemetry.Entry robot2d = fieldTelemetry.robot();
+  private final FieldTelemetry.Entry[] modules2d;
+  private final Map<String, FieldTelemetry.Entry> estimates2d = new HashMap<>();
+  private final List<FieldTelemetry.Entry> estimates2dList = new ArrayList<>();
 
   // Characterization routines
   private final SysIdRoutine translationCharacterization;
@@ -123,12 +154,16 @@ public class Drive extends SubsystemBase implements Logged, AutoCloseable {
                     REAR_RIGHT_DRIVE, REAR_RIGHT_TURNING, ANGULAR_OFFSETS.get(3), "RR"));
       };
     } else {
+      var frontLeft = new SimModule("FL");
+      var frontRight = new SimModule("FR");
+      var rearLeft = new SimModule("RL");
+      var rearRight = new SimModule("RR");
       return new Drive(
-          new NoGyro(),
-          new SimModule("FL"),
-          new SimModule("FR"),
-          new SimModule("RL"),
-          new SimModule("RR"));
+          new SimDrivetrain(frontLeft, frontRight, rearLeft, rearRight),
+          frontLeft,
+          frontRight,
+          rearLeft,
+          rearRight);
     }
   }
 
@@ -147,7 +182,16 @@ public class Drive extends SubsystemBase implements Logged, AutoCloseable {
     this.rearRight = rearRight;
 
     modules = List.of(this.frontLeft, this.frontRight, this.rearLeft, this.rearRight);
-    modules2d = new FieldObject2d[modules.size()];
+    modules2d = new FieldTelemetry.Entry[modules.size()];
+
+    states = new SwerveModuleState[modules.size()];
+    setpoints = new SwerveModuleState[modules.size()];
+    positions = new SwerveModulePosition[modules.size()];
+    for (int i = 0; i < modules.size(); i++) {
+      states[i] = new SwerveModuleState();
+      positions[i] = new SwerveModulePosition();
+    }
+    updateModules();
 
     translationCharacterization =
         new SysIdRoutine(
@@ -177,19 +221,27 @@ public class Drive extends SubsystemBase implements Logged, AutoCloseable {
                 this,
                 "rotation"));
 
-    odometry =
-        new SwerveDrivePoseEstimator(
-            kinematics,
-            gyro.rotation2d(),
-            modulePositions(),
-            new Pose2d(new Translation2d(), Rotation2d.fromDegrees(180)));
+    Pose2d start = new Pose2d(new Translation2d(), Rotation2d.fromDegrees(180));
+    if (gyro instanceof SimDrivetrain sim) {
+      // the default start is in a corner, so odometry starts wherever the walls put the chassis
+      start = sim.setPose(start);
+    }
+    // zeroed first, so that the estimator's heading offset is taken from the zeroed gyro
+    resetGyro();
+    odometry = new SwerveDrivePoseEstimator(kinematics, gyroRotation(), modulePositions(), start);
 
     for (int i = 0; i < modules.size(); i++) {
       var module = modules.get(i);
-      modules2d[i] = field2d.getObject("module-" + module.name());
+      modules2d[i] = fieldTelemetry.object("module-" + module.name());
     }
 
-    gyro.reset();
+    if (Robot.isReal() && ODOMETRY_THREAD) {
+      OdometryThread thread = new OdometryThread(gyro, modules, ODOMETRY_FREQUENCY);
+      thread.start();
+      odometrySource = Optional.of(thread);
+    } else {
+      odometrySource = Optional.empty();
+    }
 
     translationController.setTolerance(Translation.TOLERANCE.in(Meters));
     rotationController.enableContinuousInput(0, 2 * Math.PI);
@@ -236,12 +288,60 @@ public class Drive extends SubsystemBase implements Logged, AutoCloseable {
   }
 
   /**
-   * Resets the odometry to the specified pose.
+   * Records every odometry sample fed into the pose estimator to a log, so that it can be replayed.
+   * Does nothing when odometry is only updated once per tick.
+   *
+   * @param log The log to record to.
+   */
+  public void recordOdometry(DataLog log) {
+    if (odometrySource.orElse(null) instanceof OdometryThread thread) {
+      thread.record(log);
+    }
+  }
+
+  /**
+   * Replaces where high-frequency odometry samples come from, such as with samples replayed from a
+   * log. The previous source is closed.
+   *
+   * @param source The source of samples.
+   */
+  public void setOdometrySource(OdometrySource source) {
+    odometrySource.ifPresent(OdometrySource::close);
+    odometrySource = Optional.of(source);
+  }
+
+  /**
+   * Resets the odometry to the specified pose. A physically simulated robot is also moved there,
+   * or as close as the field walls allow, and odometry is reset to where it was placed.
    *
    * @param pose The pose to which to set the odometry.
    */
   public void resetOdometry(Pose2d pose) {
-    odometry.resetPosition(gyro.rotation2d(), modulePositions(), pose);
+    if (gyro instanceof SimDrivetrain sim) {
+      pose = sim.setPose(pose);
+    }
+    odometry.resetPosition(gyroRotation(), modulePositions(), pose);
+  }
+
+  /**
+   * Drives the robot based on a {@link InputStream2d} for field relative translational velocity
+   * and a {@link InputStream} for omega velocity.
+   *
+   * @param velocity A supplier for the velocity of the robot, with x perpendicular to the alliance
+   *     side and y parallel to it.
+   * @param vOmega A supplier for the angular velocity of the robot.
+   * @return The driving command.
+   */
+  public Command drive(InputStream2d velocity, DoubleSupplier vOmega) {
+    double[] v = new double[2];
+    return run(
+        () -> {
+          velocity.get(v);
+          setChassisSpeeds(
+              ChassisSpeeds.fromFieldRelativeSpeeds(
+                  v[0], v[1], vOmega.getAsDouble(), heading().plus(allianceRotation())),
+              ControlMode.OPEN_LOOP_VELOCITY);
+        });
   }
 
   /**
@@ -310,7 +410,7 @@ public class Drive extends SubsystemBase implements Logged, AutoCloseable {
    */
   public boolean isFacing(Translation2d target) {
     return Math.abs(
-            gyro.rotation2d().getRadians()
+            gyroRotation().getRadians()
                 - target.minus(pose().getTranslation()).getAngle().getRadians())
         < rotationController.getErrorTolerance();
   }
@@ -378,39 +478,92 @@ public class Drive extends SubsystemBase implements Logged, AutoCloseable {
     modules.forEach(ModuleIO::resetEncoders);
   }
 
+  /** Zeroes the gyro, holding its lock so that the odometry thread never reads it mid-reset. */
+  private void resetGyro() {
+    synchronized (gyro) {
+      gyro.reset();
+    }
+  }
+
+  /**
+   * Reads the gyro, holding its lock like the odometry thread, since no gyro implementation is
+   * documented as thread-safe.
+   */
+  private Rotation2d gyroRotation() {
+    synchronized (gyro) {
+      return gyro.rotation2d();
+    }
+  }
+
   /** Zeroes the heading of the robot. */
   public Command zeroHeading() {
-    return runOnce(gyro::reset);
+    return runOnce(this::resetGyro);
   }
 
-  /** Returns the module states. */
-  @Log.NT
+  /**
+   * Refreshes the sensors of every module and updates the module state, setpoint, and position
+   * buffers from them.
+   *
+   * <p>This should be called once per tick, before anything reads from the modules or buffers.
+   */
+  private void updateModules() {
+    for (int i = 0; i < modules.size(); i++) {
+      ModuleIO module = modules.get(i);
+      module.refresh();
+      module.updateState(states[i]);
+      module.updatePosition(positions[i]);
+      setpoints[i] = module.desiredState();
+    }
+    robotRelativeSpeeds = kinematics.toChassisSpeeds(states);
+  }
+
+  /**
+   * Returns the module states, as of the start of this tick.
+   *
+   * <p>The returned array is reused and updated in place every tick.
+   */
   public SwerveModuleState[] moduleStates() {
-    return modules.stream().map(ModuleIO::state).toArray(SwerveModuleState[]::new);
+    return states;
   }
 
-  /** Returns the module states. */
-  @Log.NT
-  private SwerveModuleState[] moduleSetpoints() {
-    return modules.stream().map(ModuleIO::desiredState).toArray(SwerveModuleState[]::new);
+  /**
+   * Returns the module setpoints, as of the start of this tick.
+   *
+   * <p>The returned array is reused and updated in place every tick.
+   */
+  public SwerveModuleState[] moduleSetpoints() {
+    return setpoints;
   }
 
-  /** Returns the module positions. */
-  @Log.NT
+  /**
+   * Returns the module positions, as of the start of this tick.
+   *
+   * <p>The returned array is reused and updated in place every tick.
+   */
   public SwerveModulePosition[] modulePositions() {
-    return modules.stream().map(ModuleIO::position).toArray(SwerveModulePosition[]::new);
+    return positions;
   }
 
-  /** Returns the robot-relative chassis speeds. */
-  @Log.NT
+  /** Returns the yaw reported by the gyro, in radians. */
+  public double gyroYaw() {
+    return gyroRotation().getRadians();
+  }
+
+  /** Returns the rate of rotation reported by the gyro. */
+  public double gyroRate() {
+    synchronized (gyro) {
+      return gyro.rate();
+    }
+  }
+
+  /** Returns the robot-relative chassis speeds, as of the start of this tick. */
   public ChassisSpeeds robotRelativeChassisSpeeds() {
-    return kinematics.toChassisSpeeds(moduleStates());
+    return robotRelativeSpeeds;
   }
 
-  /** Returns the field-relative chassis speeds. */
-  @Log.NT
+  /** Returns the field-relative chassis speeds, as of the start of this tick. */
   public ChassisSpeeds fieldRelativeChassisSpeeds() {
-    return ChassisSpeeds.fromRobotRelativeSpeeds(robotRelativeChassisSpeeds(), heading());
+    return fieldRelativeSpeeds;
   }
 
   /**
@@ -419,47 +572,103 @@ public class Drive extends SubsystemBase implements Logged, AutoCloseable {
    * @param poses The pose estimates based on vision data.
    */
   public void updateEstimates(PoseEstimate... poses) {
+    // cameras without an estimate this tick are removed from the field
+    for (int i = 0; i < estimates2dList.size(); i++) {
+      estimates2dList.get(i).clear();
+    }
     Pose3d[] loggedEstimates = new Pose3d[poses.length];
     for (int i = 0; i < poses.length; i++) {
       loggedEstimates[i] = poses[i].estimatedPose().estimatedPose;
+      Pose2d estimate = loggedEstimates[i].toPose2d();
       odometry.addVisionMeasurement(
-          poses[i].estimatedPose().estimatedPose.toPose2d(),
-          poses[i].estimatedPose().timestampSeconds,
-          poses[i].standardDev());
-      field2d
-          .getObject("Cam " + i + " Est Pose")
-          .setPose(poses[i].estimatedPose().estimatedPose.toPose2d());
+          estimate, poses[i].estimatedPose().timestampSeconds, poses[i].standardDev());
+      estimate2d(poses[i].camera()).set(estimate);
     }
     log("estimated poses", loggedEstimates);
   }
 
+  /**
+   * Returns the field entry for a camera's pose estimate.
+   *
+   * @param camera The name of the camera.
+   * @return The cached field entry.
+   */
+  private FieldTelemetry.Entry estimate2d(String camera) {
+    FieldTelemetry.Entry entry = estimates2d.get(camera);
+    if (entry == null) {
+      entry = fieldTelemetry.object(camera + " Est Pose");
+      estimates2d.put(camera, entry);
+      estimates2dList.add(entry);
+    }
+    return entry;
+  }
+
   @Override
   public void periodic() {
-    // update our heading in reality / sim
-    odometry.update(Robot.isReal() ? gyro.rotation2d() : simRotation, modulePositions());
+    periodicTimer.start();
+    updateModules();
 
-    // update our simulated field poses
-    field2d.setRobotPose(pose());
+    if (odometrySource.isPresent()) {
+      // add every sample taken since the last tick
+      odometrySource.get().drain(odometry);
+    } else {
+      // update our heading from the gyro, or from the modules in sim when there is no gyro
+      odometry.update(
+          Robot.isReal() || !(gyro instanceof NoGyro) ? gyroRotation() : simRotation,
+          positions);
+    }
 
-    for (int i = 0; i < modules2d.length; i++) {
-      var module = modules.get(i);
-      var transform = new Transform2d(MODULE_OFFSET[i], module.position().angle);
-      modules2d[i].setPose(pose().transformBy(transform));
+    Pose2d pose = pose();
+    fieldRelativeSpeeds =
+        ChassisSpeeds.fromRobotRelativeSpeeds(robotRelativeSpeeds, pose.getRotation());
+
+    // update our simulated field poses, at a lower rate than the loop
+    if (fieldTelemetry.due()) {
+      robot2d.set(pose);
+      for (int i = 0; i < modules2d.length; i++) {
+        var transform = new Transform2d(MODULE_OFFSET[i], positions[i].angle);
+        modules2d[i].set(pose.transformBy(transform));
+      }
+      fieldTelemetry.publish();
     }
 
-    log(
-        "turning target",
-        new Pose2d(pose().getTranslation(), new Rotation2d(rotationController.getSetpoint())));
+    // values already computed this tick are logged by tier, rather than recomputed by getters
+    if (LogPolicy.shouldLog(Tier.DIAGNOSTIC)) {
+      log("moduleStates", states);
+      log("moduleSetpoints", setpoints);
+      log("modulePositions", positions);
+      log("robotRelativeChassisSpeeds", robotRelativeSpeeds);
+      log("fieldRelativeChassisSpeeds", fieldRelativeSpeeds);
+      log("command", Optional.ofNullable(getCurrentCommand()).map(Command::getName).orElse("none"));
+    }
 
-    log("command", Optional.ofNullable(getCurrentCommand()).map(Command::getName).orElse("none"));
+    if (LogPolicy.shouldLog(Tier.DEBUG)) {
+      log(
+          "turning target",
+          new Pose2d(pose.getTranslation(), new Rotation2d(rotationController.getSetpoint())));
+    }
+    periodicTimer.stop();
   }
 
   @Override
   public void simulationPeriodic() {
-    simRotation =
-        simRotation.rotateBy(
-            Rotation2d.fromRadians(
-                robotRelativeChassisSpeeds().omegaRadiansPerSecond * Constants.PERIOD.in(Seconds)));
+    if (gyro instanceof SimDrivetrain sim) {
+      sim.update();
+    } else {
+      simRotation =
+          simRotation.rotateBy(
+              Rotation2d.fromRadians(
+                  robotRelativeChassisSpeeds().omegaRadiansPerSecond
+                      * Constants.PERIOD.in(Seconds)));
+    }
+  }
+
+  /**
+   * Returns the actual pose of the robot in simulation, which differs from {@link #pose()} as its
+   * wheels slip. Without a physically simulated drivetrain, this is the estimated pose.
+   */
+  public Pose2d simulatedPose() {
+    return gyro instanceof SimDrivetrain sim ? sim.pose() : pose();
   }
 
   /** Stops the drivetrain. */
@@ -510,6 +719,7 @@ public class Drive extends SubsystemBase implements Logged, AutoCloseable {
   }
 
   public void close() throws Exception {
+    odometrySource.ifPresent(OdometrySource::close);
     frontLeft.close();
     frontRight.close();
     rearLeft.close();
@@ -10,6 +10,7 @@ import edu.wpi.first.units.measure.AngularAcceleration;
 import edu.wpi.first.units.measure.AngularVelocity;
 import edu.wpi.first.units.measure.Current;
 import edu.wpi.first.units.measure.Distance;
+import edu.wpi.first.units.measure.Frequency;
 import edu.wpi.first.units.measure.LinearAcceleration;
 import edu.wpi.first.units.measure.LinearVelocity;
 import edu.wpi.first.units.measure.Time;
@@ -43,6 +44,15 @@ public final class DriveConstants {
   // Rate at which sensors update periodicially
   public static final Time SENSOR_PERIOD = Seconds.of(0.02);
 
+  // Whether to sample odometry on a dedicated thread on the real robot, and how often
+  public static final boolean ODOMETRY_THREAD = true;
+  public static final Frequency ODOMETRY_FREQUENCY = Hertz.of(250);
+
+  // How often field poses are published, and how far they must move or turn to be republished
+  public static final Time FIELD_TELEMETRY_PERIOD = Seconds.of(0.1);
+  public static final Distance FIELD_TELEMETRY_TRANSLATION = Centimeters.of(1);
+  public static final Angle FIELD_TELEMETRY_ROTATION = Degrees.of(0.5);
+
   // Distance between centers of right and left wheels on robot
   public static final Distance TRACK_WIDTH = Meters.of(0.5715);
   // Distance between front and back wheels on robot
@@ -56,6 +66,9 @@ public final class DriveConstants {
   // Robot width with bumpers
   public static final Distance CHASSIS_WIDTH = Inches.of(32.645);
 
+  // Physics steps the simulated drivetrain takes per tick
+  public static final int SIM_SUBSTEPS = 10;
+
   // Maximum achievable translational and rotation velocities and accelerations of the robot.
   public static final LinearVelocity MAX_SPEED = MetersPerSecond.of(5.74);
   public static final LinearAcceleration MAX_ACCEL = MetersPerSecondPerSecond.of(16.0);
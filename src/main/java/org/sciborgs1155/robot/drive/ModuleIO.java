@@ -8,6 +8,23 @@ import org.sciborgs1155.robot.drive.DriveConstants.ControlMode;
 
 /** Generalized hardware internals for a swerve module */
 public interface ModuleIO extends Logged, AutoCloseable {
+  /**
+   * Sensor readings of a module, captured all at once by {@link ModuleIO#refresh()}.
+   *
+   * <p>Readings are only written during a refresh, so every consumer within a tick sees the same
+   * values.
+   */
+  public static final class Inputs {
+    /** The drive encoder position, in meters. */
+    public double drivePosition;
+
+    /** The drive encoder velocity, in meters / second. */
+    public double driveVelocity;
+
+    /** The adjusted turn encoder position. */
+    public Rotation2d rotation = Rotation2d.kZero;
+  }
+
   /**
    * Returns the name of the swerve module (e.g. "FR" indicating the front right swerve module.)
    *
@@ -29,6 +46,15 @@ public interface ModuleIO extends Logged, AutoCloseable {
    */
   void setTurnVoltage(double voltage);
 
+  /**
+   * Reads every sensor of the module exactly once and stores the readings for this tick.
+   *
+   * <p>{@link #drivePosition()}, {@link #driveVelocity()}, {@link #rotation()}, and everything
+   * built on them return the readings from the most recent refresh. This should be called once per
+   * tick, before any of them are used.
+   */
+  void refresh();
+
   /**
    * Returns the distance the wheel traveled.
    *
@@ -50,6 +76,42 @@ public interface ModuleIO extends Logged, AutoCloseable {
    */
   Rotation2d rotation();
 
+  /**
+   * Samples the drive distance straight from the hardware for high-frequency odometry, bypassing
+   * the per-tick snapshot.
+   *
+   * <p>This is called from the odometry thread, so real implementations must be thread-safe and
+   * must not touch state used by the main loop. By default, the latest snapshot is returned.
+   *
+   * @return The drive encoder position, in meters.
+   */
+  default double sampleDrivePosition() {
+    return drivePosition();
+  }
+
+  /**
+   * Samples the angular position straight from the hardware for high-frequency odometry, bypassing
+   * the per-tick snapshot.
+   *
+   * <p>This is called from the odometry thread, so real implementations must be thread-safe and
+   * must not touch state used by the main loop. By default, the latest snapshot is returned.
+   *
+   * @return The adjusted turn encoder position, in radians.
+   */
+  default double sampleRotation() {
+    return rotation().getRadians();
+  }
+
+  /**
+   * Returns when the hardware measured the last {@link #sampleDrivePosition()}, for modules whose
+   * signals are timestamped. This is called from the odometry thread, right after sampling.
+   *
+   * @return The FPGA time of the measurement, in seconds, or NaN if it is not known.
+   */
+  default double sampleTimestamp() {
+    return Double.NaN;
+  }
+
   /**
    * Returns the current state of the module.
    *
@@ -64,6 +126,27 @@ public interface ModuleIO extends Logged, AutoCloseable {
    */
   SwerveModulePosition position();
 
+  /**
+   * Writes the current state of the module into an existing state, without allocating a new one.
+   *
+   * @param state The state to update in place.
+   */
+  default void updateState(SwerveModuleState state) {
+    state.speedMetersPerSecond = driveVelocity();
+    state.angle = rotation();
+  }
+
+  /**
+   * Writes the current position of the module into an existing position, without allocating a new
+   * one.
+   *
+   * @param position The position to update in place.
+   */
+  default void updatePosition(SwerveModulePosition position) {
+    position.distanceMeters = drivePosition();
+    position.angle = rotation();
+  }
+
   /**
    * Returns the desired position of the module.
    *
@@ -17,6 +17,9 @@ public class NoModule implements ModuleIO {
   @Override
   public void setTurnVoltage(double voltage) {}
 
+  @Override
+  public void refresh() {}
+
   @Override
   public double drivePosition() {
     return 0;
@@ -29,7 +32,7 @@ public class NoModule implements ModuleIO {
 
   @Override
   public Rotation2d rotation() {
-    return new Rotation2d();
+    return Rotation2d.kZero;
   }
 
   @Override
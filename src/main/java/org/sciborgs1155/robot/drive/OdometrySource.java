@@ -0,0 +1,20 @@
+package org.sciborgs1155.robot.drive;
+
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+
+/**
+ * A source of timestamped odometry samples taken faster than the main loop, such as a sampling
+ * thread or a recording of one.
+ */
+public interface OdometrySource extends AutoCloseable {
+  /**
+   * Feeds every sample taken since the last call into a pose estimator, oldest first. This must
+   * only be called from the main thread.
+   *
+   * @param estimator The pose estimator to update.
+   */
+  void drain(SwerveDrivePoseEstimator estimator);
+
+  @Override
+  void close();
+}
@@ -0,0 +1,164 @@
+package org.sciborgs1155.robot.drive;
+
+import static edu.wpi.first.units.Units.Seconds;
+
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.units.measure.Frequency;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.sciborgs1155.lib.StructRecord;
+
+/**
+ * Samples module positions and gyro yaw on a dedicated thread, much faster than the main robot
+ * loop.
+ *
+ * <p>Timestamped samples are pushed into a lock-free single-producer, single-consumer ring buffer,
+ * which the main loop drains into the pose estimator with {@link #drain}. The sampling thread never
+ * touches the pose estimator, so pose reads from the main loop stay thread-safe and never block
+ * sampling.
+ *
+ * <p>No gyro implementation is documented as thread-safe, so the gyro is only read while holding
+ * its lock, which the main loop also holds to reset it. Each sample is stamped with the time the
+ * modules' signals were measured, when they are timestamped, or else when sampling began.
+ *
+ * <p>Drained samples can be recorded to a log with {@link #record}, so that replay estimates pose
+ * from the same samples as the robot did.
+ */
+final class OdometryThread implements OdometrySource {
+  /** The name of the log entry that drained samples are recorded to. */
+  static final String KEY = "/Telemetry/Odometry";
+
+  // The index of each field within a recorded sample, in schema order. The drive distance of every
+  // module follows the yaw, and the angle of every module follows the distances.
+  static final int TIMESTAMP = 0;
+  static final int YAW = TIMESTAMP + 1;
+  static final int DISTANCE = YAW + 1;
+
+  // must be a power of two; enough for several ticks of samples
+  private static final int CAPACITY = 64;
+
+  private final GyroIO gyro;
+  private final List<ModuleIO> modules;
+  private final Notifier notifier;
+  private final double period;
+
+  private final double[] timestamps = new double[CAPACITY];
+  private final double[] yaws = new double[CAPACITY];
+  private final double[][] distances;
+  private final double[][] angles;
+
+  // index of the next sample to write, only advanced by the sampling thread
+  private final AtomicLong head = new AtomicLong();
+  // index of the next sample to read, only advanced by the main thread
+  private final AtomicLong tail = new AtomicLong();
+
+  private final SwerveModulePosition[] positions;
+
+  private StructRecord recorder;
+
+  /**
+   * Creates a new odometry thread. Sampling does not begin until {@link #start()} is called.
+   *
+   * @param gyro The gyro to sample yaw from.
+   * @param modules The modules to sample positions from.
+   * @param frequency The rate at which to sample.
+   */
+  OdometryThread(GyroIO gyro, List<ModuleIO> modules, Frequency frequency) {
+    this.gyro = gyro;
+    this.modules = modules;
+    this.period = frequency.asPeriod().in(Seconds);
+
+    distances = new double[CAPACITY][modules.size()];
+    angles = new double[CAPACITY][modules.size()];
+    positions = new SwerveModulePosition[modules.size()];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = new SwerveModulePosition();
+    }
+
+    notifier = new Notifier(this::sample);
+    notifier.setName("Odometry");
+  }
+
+  /** Starts sampling. */
+  void start() {
+    notifier.startPeriodic(period);
+  }
+
+  /**
+   * Records every drained sample to a log, so that it can be replayed. This must only be called
+   * from the main thread.
+   *
+   * @param log The log to record to.
+   */
+  void record(DataLog log) {
+    recorder =
+        StructRecord.builder("OdometrySample")
+            .addDouble("timestamp")
+            .addDouble("yaw")
+            .addDoubles("distance", modules.size())
+            .addDoubles("angle", modules.size())
+            .build(log, KEY);
+  }
+
+  /** Takes one sample. Runs on the sampling thread. */
+  private void sample() {
+    long next = head.get();
+    if (next - tail.get() >= CAPACITY) {
+      // the main loop has stalled for several ticks; drop samples until it catches up
+      return;
+    }
+
+    int i = (int) (next & (CAPACITY - 1));
+    double start = Timer.getFPGATimestamp();
+    double measured = 0;
+    int timestamped = 0;
+    for (int m = 0; m < modules.size(); m++) {
+      ModuleIO module = modules.get(m);
+      distances[i][m] = module.sampleDrivePosition();
+      angles[i][m] = module.sampleRotation();
+      double timestamp = module.sampleTimestamp();
+      if (!Double.isNaN(timestamp)) {
+        measured += timestamp;
+        timestamped++;
+      }
+    }
+    // the gyro is reset from the main thread, which holds its lock while doing so
+    synchronized (gyro) {
+      yaws[i] = gyro.rotation2d().getRadians();
+    }
+    // prefer when the hardware measured the sample, over when the reads began
+    timestamps[i] = timestamped > 0 ? measured / timestamped : start;
+
+    // publishes the sample to the main thread
+    head.lazySet(next + 1);
+  }
+
+  @Override
+  public void drain(SwerveDrivePoseEstimator estimator) {
+    long next = tail.get();
+    long end = head.get();
+    for (; next < end; next++) {
+      int i = (int) (next & (CAPACITY - 1));
+      for (int m = 0; m < positions.length; m++) {
+        positions[m].distanceMeters = distances[i][m];
+        positions[m].angle = Rotation2d.fromRadians(angles[i][m]);
+      }
+      estimator.updateWithTime(timestamps[i], Rotation2d.fromRadians(yaws[i]), positions);
+      if (recorder != null) {
+        recorder.put(timestamps[i]).put(yaws[i]).put(distances[i]).put(angles[i]).append();
+      }
+    }
+    // frees the drained slots for the sampling thread
+    tail.lazySet(end);
+  }
+
+  @Override
+  public void close() {
+    notifier.close();
+  }
+}
@@ -0,0 +1,197 @@
+package org.sciborgs1155.robot.drive;
+
+import static edu.wpi.first.units.Units.KilogramSquareMeters;
+import static edu.wpi.first.units.Units.Kilograms;
+import static edu.wpi.first.units.Units.Meters;
+import static edu.wpi.first.units.Units.Seconds;
+import static org.sciborgs1155.robot.Constants.Robot.MASS;
+import static org.sciborgs1155.robot.Constants.Robot.MOI;
+import static org.sciborgs1155.robot.drive.DriveConstants.CHASSIS_WIDTH;
+import static org.sciborgs1155.robot.drive.DriveConstants.MODULE_OFFSET;
+import static org.sciborgs1155.robot.drive.DriveConstants.SIM_SUBSTEPS;
+import static org.sciborgs1155.robot.drive.DriveConstants.WHEEL_COF;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Rotation3d;
+import java.util.List;
+import org.sciborgs1155.robot.Constants;
+import org.sciborgs1155.robot.Constants.Field;
+
+/**
+ * A rigid-body simulation of the chassis, driven by the wheels of its simulated modules. It is the
+ * drivetrain's gyro in simulation, reporting the chassis's actual heading.
+ *
+ * <p>Each substep, the carpet pushes each wheel with the force that would bring the chassis to the
+ * motion its wheels command, limited by that wheel's share of the friction. Wheels that ask for
+ * more than friction allows slip, so encoders overcount and odometry drifts from {@link #pose()},
+ * as it would on a real robot. The chassis stops against the field walls.
+ *
+ * <p>Wheel speeds and angles are read once per tick, and the substeps only use primitives, so
+ * {@link #update()} does not allocate.
+ */
+public final class SimDrivetrain implements GyroIO {
+  private static final double GRAVITY = 9.80665;
+
+  private final List<ModuleIO> modules;
+
+  private final double mass = MASS.in(Kilograms);
+  private final double moi = MOI.in(KilogramSquareMeters);
+  private final double dt = Constants.PERIOD.in(Seconds) / SIM_SUBSTEPS;
+  private final double maxForce;
+  private final double halfWidth = CHASSIS_WIDTH.in(Meters) / 2;
+  private final double fieldLength = Field.LENGTH.in(Meters);
+  private final double fieldWidth = Field.WIDTH.in(Meters);
+
+  // module offsets, and the sum of their squared distances from the center
+  private final double[] offsetX;
+  private final double[] offsetY;
+  private final double offsetSquared;
+
+  // the velocity each wheel's surface moves at this tick, relative to the robot
+  private final double[] wheelX;
+  private final double[] wheelY;
+
+  // the chassis's pose and velocity, relative to the field
+  private double x = 0;
+  private double y = 0;
+  private double heading = 0;
+  private double vx = 0;
+  private double vy = 0;
+  private double omega = 0;
+
+  private double headingOffset = 0;
+
+  /**
+   * Creates a simulated drivetrain.
+   *
+   * @param modules The modules, in the same order as {@link DriveConstants#MODULE_OFFSET}.
+   */
+  public SimDrivetrain(ModuleIO... modules) {
+    this.modules = List.of(modules);
+    int count = modules.length;
+    maxForce = WHEEL_COF * mass * GRAVITY / count;
+    offsetX = new double[count];
+    offsetY = new double[count];
+    wheelX = new double[count];
+    wheelY = new double[count];
+    double squared = 0;
+    for (int i = 0; i < count; i++) {
+      offsetX[i] = MODULE_OFFSET[i].getX();
+      offsetY[i] = MODULE_OFFSET[i].getY();
+      squared += offsetX[i] * offsetX[i] + offsetY[i] * offsetY[i];
+    }
+    offsetSquared = squared;
+  }
+
+  /** Advances the chassis by one tick, under the wheel speeds and angles its modules read. */
+  public void update() {
+    double commandX = 0;
+    double commandY = 0;
+    double commandOmega = 0;
+    for (int i = 0; i < wheelX.length; i++) {
+      ModuleIO module = modules.get(i);
+      wheelX[i] = module.driveVelocity() * module.rotation().getCos();
+      wheelY[i] = module.driveVelocity() * module.rotation().getSin();
+      commandX += wheelX[i];
+      commandY += wheelY[i];
+      commandOmega += offsetX[i] * wheelY[i] - offsetY[i] * wheelX[i];
+    }
+    // the chassis motion that best fits the wheels, in the least squares sense
+    commandX /= wheelX.length;
+    commandY /= wheelX.length;
+    commandOmega /= offsetSquared;
+
+    for (int step = 0; step < SIM_SUBSTEPS; step++) {
+      substep(commandX, commandY, commandOmega);
+    }
+  }
+
+  /** Applies the wheels' forces and the walls to the chassis, over one substep. */
+  private void substep(double commandX, double commandY, double commandOmega) {
+    double cos = Math.cos(heading);
+    double sin = Math.sin(heading);
+
+    // the force and torque that reach the commanded motion in one substep, relative to the robot
+    double forceX = mass * (commandX - (cos * vx + sin * vy)) / dt;
+    double forceY = mass * (commandY - (-sin * vx + cos * vy)) / dt;
+    double torque = moi * (commandOmega - omega) / dt;
+
+    // split between the wheels, each limited by friction
+    double totalX = 0;
+    double totalY = 0;
+    double totalTorque = 0;
+    for (int i = 0; i < wheelX.length; i++) {
+      double fx = forceX / wheelX.length - torque * offsetY[i] / offsetSquared;
+      double fy = forceY / wheelX.length + torque * offsetX[i] / offsetSquared;
+      double magnitude = Math.hypot(fx, fy);
+      if (magnitude > maxForce) {
+        fx *= maxForce / magnitude;
+        fy *= maxForce / magnitude;
+      }
+      totalX += fx;
+      totalY += fy;
+      totalTorque += offsetX[i] * fy - offsetY[i] * fx;
+    }
+
+    vx += (cos * totalX - sin * totalY) / mass * dt;
+    vy += (sin * totalX + cos * totalY) / mass * dt;
+    omega += totalTorque / moi * dt;
+    x += vx * dt;
+    y += vy * dt;
+    heading += omega * dt;
+
+    // keep the bumpers inside the walls, stopping any motion into them
+    double extent = halfWidth * (Math.abs(cos) + Math.abs(sin));
+    if (x < extent || x > fieldLength - extent) {
+      x = Math.max(extent, Math.min(x, fieldLength - extent));
+      vx = x == extent ? Math.max(vx, 0) : Math.min(vx, 0);
+    }
+    if (y < extent || y > fieldWidth - extent) {
+      y = Math.max(extent, Math.min(y, fieldWidth - extent));
+      vy = y == extent ? Math.max(vy, 0) : Math.min(vy, 0);
+    }
+  }
+
+  /** Returns the actual pose of the chassis on the field. */
+  public Pose2d pose() {
+    return new Pose2d(x, y, new Rotation2d(heading));
+  }
+
+  /**
+   * Places the chassis on the field, at rest. A pose that would put the bumpers past the walls is
+   * moved inside them, so the chassis is never clamped out from under odometry on the next update.
+   *
+   * @param pose The pose to place it at.
+   * @return The pose it was placed at.
+   */
+  public Pose2d setPose(Pose2d pose) {
+    heading = pose.getRotation().getRadians();
+    double extent = halfWidth * (Math.abs(Math.cos(heading)) + Math.abs(Math.sin(heading)));
+    x = Math.max(extent, Math.min(pose.getX(), fieldLength - extent));
+    y = Math.max(extent, Math.min(pose.getY(), fieldWidth - extent));
+    vx = 0;
+    vy = 0;
+    omega = 0;
+    return pose();
+  }
+
+  /** Returns the rate of rotation, in degrees / second like the navX. */
+  @Override
+  public double rate() {
+    return Math.toDegrees(omega);
+  }
+
+  @Override
+  public Rotation3d rotation3d() {
+    return new Rotation3d(0, 0, heading - headingOffset);
+  }
+
+  @Override
+  public void reset() {
+    headingOffset = heading;
+  }
+
+  @Override
+  public void close() throws Exception {}
+}
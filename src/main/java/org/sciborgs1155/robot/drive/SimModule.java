@@ -3,31 +3,21 @@ package org.sciborgs1155.robot.drive;
 import static edu.wpi.first.units.Units.Seconds;
 import static org.sciborgs1155.robot.drive.DriveConstants.TYPE;
 
-import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.controller.PIDController;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.math.system.plant.DCMotor;
-import edu.wpi.first.math.system.plant.LinearSystemId;
-import edu.wpi.first.wpilibj.simulation.DCMotorSim;
 import org.sciborgs1155.robot.Constants;
 import org.sciborgs1155.robot.drive.DriveConstants.ControlMode;
 import org.sciborgs1155.robot.drive.DriveConstants.ModuleConstants.Driving;
 import org.sciborgs1155.robot.drive.DriveConstants.ModuleConstants.Turning;
 
 public class SimModule implements ModuleIO {
-  private final DCMotorSim drive =
+  private final Motor drive =
       switch (TYPE) {
-        case SPARK ->
-            new DCMotorSim(
-                LinearSystemId.createDCMotorSystem(Driving.FF.SPARK.V, Driving.FF.SPARK.A),
-                DCMotor.getNeoVortex(1));
-        case TALON ->
-            new DCMotorSim(
-                LinearSystemId.createDCMotorSystem(Driving.FF.TALON.V, Driving.FF.TALON.A),
-                DCMotor.getKrakenX60(1));
+        case SPARK -> new Motor(Driving.FF.SPARK.V, Driving.FF.SPARK.A);
+        case TALON -> new Motor(Driving.FF.TALON.V, Driving.FF.TALON.A);
       };
 
   private final PIDController driveFeedback =
@@ -45,15 +35,15 @@ public class SimModule implements ModuleIO {
             new SimpleMotorFeedforward(Driving.FF.TALON.S, Driving.FF.TALON.V, Driving.FF.TALON.A);
       };
 
-  private final DCMotorSim turn =
-      new DCMotorSim(
-          LinearSystemId.createDCMotorSystem(Turning.FF.V, Turning.FF.A), DCMotor.getNeo550(1));
+  private final Motor turn = new Motor(Turning.FF.V, Turning.FF.A);
 
   private final PIDController turnFeedback =
       new PIDController(Turning.PID.P, Turning.PID.I, Turning.PID.D);
 
   private SwerveModuleState setpoint = new SwerveModuleState();
 
+  private final Inputs inputs = new Inputs();
+
   private final String name;
 
   public SimModule(String name) {
@@ -69,29 +59,40 @@ public class SimModule implements ModuleIO {
 
   @Override
   public void setDriveVoltage(double voltage) {
-    drive.setInputVoltage(voltage);
-    drive.update(Constants.PERIOD.in(Seconds));
+    drive.voltage = voltage;
   }
 
   @Override
   public void setTurnVoltage(double voltage) {
-    turn.setInputVoltage(voltage);
-    turn.update(Constants.PERIOD.in(Seconds));
+    turn.voltage = voltage;
+  }
+
+  /**
+   * Advances both motors by one tick, under the voltages last set, and reads them. Voltages only
+   * take effect here, so the simulation advances exactly once per tick however often they are set.
+   */
+  @Override
+  public void refresh() {
+    drive.step();
+    turn.step();
+    inputs.drivePosition = drive.position;
+    inputs.driveVelocity = drive.velocity;
+    inputs.rotation = Rotation2d.fromRadians(turn.position);
   }
 
   @Override
   public double drivePosition() {
-    return drive.getAngularPositionRad();
+    return inputs.drivePosition;
   }
 
   @Override
   public double driveVelocity() {
-    return drive.getAngularVelocityRadPerSec();
+    return inputs.driveVelocity;
   }
 
   @Override
   public Rotation2d rotation() {
-    return Rotation2d.fromRadians(turn.getAngularPositionRad());
+    return inputs.rotation;
   }
 
   @Override
@@ -111,8 +112,10 @@ public class SimModule implements ModuleIO {
 
   @Override
   public void resetEncoders() {
-    drive.setState(VecBuilder.fill(0, 0));
-    turn.setState(VecBuilder.fill(0, 0));
+    drive.position = 0;
+    drive.velocity = 0;
+    turn.position = 0;
+    turn.velocity = 0;
   }
 
   @Override
@@ -155,4 +158,38 @@ public class SimModule implements ModuleIO {
 
   @Override
   public void close() {}
+
+  /**
+   * A motor and its load, modeled as a first-order system from its feedforward constants:
+   * {@code dv/dt = (u - kV v) / kA}.
+   *
+   * <p>With the voltage held for a tick, this has an exact closed-form solution, so each step is a
+   * handful of multiplications with coefficients computed once, rather than a discretized matrix.
+   */
+  private static final class Motor {
+    private final double kV;
+    private final double dt = Constants.PERIOD.in(Seconds);
+
+    // the fraction of velocity that remains after a tick, and how far the decay moves the motor
+    private final double decay;
+    private final double decayDistance;
+
+    private double voltage = 0;
+    private double position = 0;
+    private double velocity = 0;
+
+    private Motor(double kV, double kA) {
+      this.kV = kV;
+      decay = Math.exp(-kV / kA * dt);
+      decayDistance = (1 - decay) * kA / kV;
+    }
+
+    /** Advances the motor by one tick under the current voltage. */
+    private void step() {
+      double steadyVelocity = voltage / kV;
+      double error = velocity - steadyVelocity;
+      position += steadyVelocity * dt + error * decayDistance;
+      velocity = steadyVelocity + error * decay;
+    }
+  }
 }
@@ -3,6 +3,8 @@ package org.sciborgs1155.robot.drive;
 import static edu.wpi.first.units.Units.*;
 import static org.sciborgs1155.lib.FaultLogger.*;
 import static org.sciborgs1155.robot.drive.DriveConstants.ModuleConstants.COUPLING_RATIO;
+import static org.sciborgs1155.robot.drive.DriveConstants.ODOMETRY_FREQUENCY;
+import static org.sciborgs1155.robot.drive.DriveConstants.ODOMETRY_THREAD;
 
 import com.revrobotics.RelativeEncoder;
 import com.revrobotics.spark.ClosedLoopSlot;
@@ -32,6 +34,10 @@ import org.sciborgs1155.robot.drive.DriveConstants.ModuleConstants.Driving;
 import org.sciborgs1155.robot.drive.DriveConstants.ModuleConstants.Turning;
 
 public class SparkModule implements ModuleIO {
+  // status frame period for position data sampled by the odometry thread
+  private static final int ODOMETRY_FRAME_PERIOD =
+      (int) ODOMETRY_FREQUENCY.asPeriod().in(Milliseconds);
+
   private final SparkFlex driveMotor; // NEO Vortex
   private final SparkFlexConfig driveMotorConfig;
   private final SparkMax turnMotor; // NEO 550
@@ -47,9 +53,7 @@ public class SparkModule implements ModuleIO {
 
   private final Rotation2d angularOffset;
 
-  private double lastPosition;
-  private double lastVelocity;
-  private Rotation2d lastRotation;
+  private final Inputs inputs = new Inputs();
 
   @Log.NT private SwerveModuleState setpoint = new SwerveModuleState();
 
@@ -96,6 +100,11 @@ public class SparkModule implements ModuleIO {
             Set.of(Sensor.INTEGRATED),
             false));
 
+    if (ODOMETRY_THREAD) {
+      driveMotorConfig.apply(
+          driveMotorConfig.signals.primaryEncoderPositionPeriodMs(ODOMETRY_FRAME_PERIOD));
+    }
+
     check(
         driveMotor,
         driveMotor.configure(
@@ -141,6 +150,11 @@ public class SparkModule implements ModuleIO {
             Set.of(Sensor.ABSOLUTE),
             false));
 
+    if (ODOMETRY_THREAD) {
+      turnMotorConfig.apply(
+          turnMotorConfig.signals.absoluteEncoderPositionPeriodMs(ODOMETRY_FRAME_PERIOD));
+    }
+
     check(
         turnMotor,
         turnMotor.configure(
@@ -173,27 +187,52 @@ public class SparkModule implements ModuleIO {
     check(turnMotor);
   }
 
+  @Override
+  public void refresh() {
+    // failed reads keep the previous tick's value
+    double turnPosition = turningEncoder.getPosition();
+    boolean turnRead = check(turnMotor);
+    if (turnRead) {
+      inputs.rotation = Rotation2d.fromRadians(turnPosition).minus(angularOffset);
+    }
+
+    // the coupling correction needs this tick's turn position, so both reads must succeed
+    double drivePosition = driveEncoder.getPosition();
+    if (check(driveMotor) && turnRead) {
+      // account for rotation of turn motor on rotation of drive motor
+      inputs.drivePosition = drivePosition - turnPosition * COUPLING_RATIO;
+    }
+
+    double driveVelocity = driveEncoder.getVelocity();
+    if (check(driveMotor)) {
+      inputs.driveVelocity = driveVelocity;
+    }
+  }
+
   @Override
   public double drivePosition() {
-    lastPosition = SparkUtils.wrapCall(driveMotor, driveEncoder.getPosition()).orElse(lastPosition);
-    // account for rotation of turn motor on rotation of drive motor
-    return lastPosition - turningEncoder.getPosition() * COUPLING_RATIO;
+    return inputs.drivePosition;
   }
 
   @Override
   public double driveVelocity() {
-    lastVelocity = SparkUtils.wrapCall(driveMotor, driveEncoder.getVelocity()).orElse(lastVelocity);
-    return lastVelocity;
+    return inputs.driveVelocity;
   }
 
   @Override
   public Rotation2d rotation() {
-    lastRotation =
-        SparkUtils.wrapCall(
-                turnMotor,
-                Rotation2d.fromRadians(turningEncoder.getPosition()).minus(angularOffset))
-            .orElse(lastRotation);
-    return lastRotation;
+    return inputs.rotation;
+  }
+
+  @Override
+  public double sampleDrivePosition() {
+    // account for rotation of turn motor on rotation of drive motor
+    return driveEncoder.getPosition() - turningEncoder.getPosition() * COUPLING_RATIO;
+  }
+
+  @Override
+  public double sampleRotation() {
+    return turningEncoder.getPosition() - angularOffset.getRadians();
   }
 
   @Override
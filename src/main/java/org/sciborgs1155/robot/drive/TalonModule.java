@@ -5,6 +5,7 @@ import static org.sciborgs1155.lib.FaultLogger.*;
 import static org.sciborgs1155.robot.drive.DriveConstants.*;
 
 import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.Utils;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.VelocityVoltage;
 import com.ctre.phoenix6.hardware.TalonFX;
@@ -25,8 +26,10 @@ import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.units.measure.Angle;
 import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.wpilibj.Timer;
 import java.util.Set;
 import monologue.Annotations.Log;
+import org.sciborgs1155.lib.PhoenixSignals;
 import org.sciborgs1155.lib.SparkUtils;
 import org.sciborgs1155.lib.SparkUtils.Data;
 import org.sciborgs1155.lib.SparkUtils.Sensor;
@@ -42,6 +45,8 @@ public class TalonModule implements ModuleIO {
 
   private final StatusSignal<Angle> drivePos;
   private final StatusSignal<AngularVelocity> driveVelocity;
+  // a copy of the drive position signal, only refreshed by the odometry thread
+  private final StatusSignal<Angle> odometryPos;
   private final SparkAbsoluteEncoder turningEncoder;
 
   private final VelocityVoltage velocityOut = new VelocityVoltage(0);
@@ -53,7 +58,7 @@ public class TalonModule implements ModuleIO {
 
   @Log.NT private SwerveModuleState setpoint = new SwerveModuleState();
 
-  private Rotation2d lastRotation;
+  private final Inputs inputs = new Inputs();
 
   private final String name;
 
@@ -67,8 +72,13 @@ public class TalonModule implements ModuleIO {
     driveFF =
         new SimpleMotorFeedforward(Driving.FF.TALON.S, Driving.FF.TALON.V, Driving.FF.TALON.A);
 
-    drivePos.setUpdateFrequency(1 / SENSOR_PERIOD.in(Seconds));
-    driveVelocity.setUpdateFrequency(1 / SENSOR_PERIOD.in(Seconds));
+    double frequency =
+        ODOMETRY_THREAD ? ODOMETRY_FREQUENCY.in(Hertz) : 1 / SENSOR_PERIOD.in(Seconds);
+    drivePos.setUpdateFrequency(frequency);
+    driveVelocity.setUpdateFrequency(frequency);
+    PhoenixSignals.register(drivePos, driveVelocity);
+
+    odometryPos = drivePos.clone();
 
     TalonFXConfiguration talonConfig = new TalonFXConfiguration();
     // reset config
@@ -154,24 +164,53 @@ public class TalonModule implements ModuleIO {
     turnMotor.setVoltage(voltage);
   }
 
+  @Override
+  public void refresh() {
+    // drive signals are refreshed once per tick by PhoenixSignals. Not latency compensated, so
+    // that a reset from these positions matches the raw positions the odometry thread samples
+    inputs.drivePosition = drivePos.getValueAsDouble();
+    inputs.driveVelocity = driveVelocity.getValueAsDouble();
+
+    // a failed read keeps the previous tick's value
+    double turnPosition = turningEncoder.getPosition();
+    if (check(turnMotor)) {
+      inputs.rotation = Rotation2d.fromRadians(turnPosition).minus(angularOffset);
+    }
+  }
+
   @Override
   public double drivePosition() {
-    return drivePos.getValueAsDouble();
+    return inputs.drivePosition;
   }
 
   @Override
   public double driveVelocity() {
-    return driveVelocity.getValueAsDouble();
+    return inputs.driveVelocity;
   }
 
   @Override
   public Rotation2d rotation() {
-    lastRotation =
-        SparkUtils.wrapCall(
-                turnMotor,
-                Rotation2d.fromRadians(turningEncoder.getPosition()).minus(angularOffset))
-            .orElse(lastRotation);
-    return lastRotation;
+    return inputs.rotation;
+  }
+
+  @Override
+  public double sampleDrivePosition() {
+    // not latency compensated, since the sample is stamped with when the frame was measured
+    odometryPos.refresh();
+    return odometryPos.getValueAsDouble();
+  }
+
+  @Override
+  public double sampleTimestamp() {
+    // signal timestamps are in Phoenix's timebase, rather than the FPGA's
+    return odometryPos.getTimestamp().getTime()
+        - Utils.getCurrentTimeSeconds()
+        + Timer.getFPGATimestamp();
+  }
+
+  @Override
+  public double sampleRotation() {
+    return turningEncoder.getPosition() - angularOffset.getRadians();
   }
 
   @Override
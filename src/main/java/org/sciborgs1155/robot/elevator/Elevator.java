@@ -19,6 +19,7 @@ import static org.sciborgs1155.robot.elevator.ElevatorConstants.kV;
 
 import com.ctre.phoenix6.SignalLogger;
 import edu.wpi.first.epilogue.Logged;
+import edu.wpi.first.epilogue.Logged.Importance;
 import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.ElevatorFeedforward;
 import edu.wpi.first.math.controller.ProfiledPIDController;
@@ -47,7 +48,7 @@ public class Elevator extends SubsystemBase {
     }
   }
 
-  
+  @Logged(importance = Importance.DEBUG)
   private final ProfiledPIDController pid =
       new ProfiledPIDController(
           kP,
@@ -131,22 +132,22 @@ public class Elevator extends SubsystemBase {
   //   return goTo(level.extension.in(Meters));
   // }
 
-  
+  @Logged(importance = Importance.CRITICAL)
   public double pos() {
     return hardware.getPos();
   }
 
-  
+  @Logged(importance = Importance.INFO)
   public double vel() {
     return hardware.getVel();
   }
 
-  
+  @Logged(importance = Importance.INFO)
   public double getPosSetpoint() {
     return pid.getSetpoint().position;
   }
 
-  
+  @Logged(importance = Importance.INFO)
   public double getVelSetpoint() {
     return pid.getSetpoint().velocity;
   }
@@ -4,10 +4,15 @@ import static edu.wpi.first.units.Units.Amps;
 import static org.sciborgs1155.robot.elevator.ElevatorConstants.CONVERSION_FACTOR;
 import static org.sciborgs1155.robot.elevator.ElevatorConstants.CURRENT_LIMIT;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
 import com.ctre.phoenix6.controls.Follower;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.NeutralModeValue;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import org.sciborgs1155.lib.PhoenixSignals;
 import org.sciborgs1155.lib.TalonUtils;
 import org.sciborgs1155.robot.Ports;
 
@@ -16,6 +21,9 @@ public class RealElevator implements ElevatorIO {
   private final TalonFX lead = new TalonFX(Ports.Elevator.FRONT_LEADER);
   private final TalonFX follow = new TalonFX(Ports.Elevator.BACK_FOLLOWER);
 
+  private final StatusSignal<Angle> position = lead.getPosition();
+  private final StatusSignal<AngularVelocity> velocity = lead.getVelocity();
+
   public RealElevator() {
 
     TalonFXConfiguration config = new TalonFXConfiguration();
@@ -31,6 +39,8 @@ public class RealElevator implements ElevatorIO {
     lead.setPosition(0);
     follow.setPosition(0);
 
+    PhoenixSignals.register(position, velocity);
+
     // unsure what these are for
     TalonUtils.addMotor(lead);
     TalonUtils.addMotor(follow);
@@ -43,12 +53,12 @@ public class RealElevator implements ElevatorIO {
 
   @Override
   public double getPos() {
-    return lead.getPosition().getValueAsDouble();
+    return BaseStatusSignal.getLatencyCompensatedValueAsDouble(position, velocity);
   }
 
   @Override
   public double getVel() {
-    return lead.getVelocity().getValueAsDouble();
+    return velocity.getValueAsDouble();
   }
 
   @Override
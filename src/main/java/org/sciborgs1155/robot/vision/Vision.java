@@ -10,34 +10,75 @@ import edu.wpi.first.math.geometry.Pose3d;
 import edu.wpi.first.math.geometry.Transform3d;
 import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.RawLogEntry;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 import monologue.Annotations.Log;
 import monologue.Logged;
 import org.photonvision.EstimatedRobotPose;
 import org.photonvision.PhotonCamera;
 import org.photonvision.PhotonPoseEstimator;
 import org.photonvision.PhotonPoseEstimator.PoseStrategy;
+import org.photonvision.common.dataflow.structures.Packet;
 import org.photonvision.simulation.PhotonCameraSim;
 import org.photonvision.simulation.SimCameraProperties;
 import org.photonvision.simulation.VisionSystemSim;
 import org.photonvision.targeting.PhotonPipelineResult;
 import org.photonvision.targeting.PhotonTrackedTarget;
 import org.sciborgs1155.lib.FaultLogger;
+import org.sciborgs1155.lib.FaultLogger.FaultType;
 import org.sciborgs1155.robot.Robot;
 
-public class Vision implements Logged {
+public class Vision implements Logged, AutoCloseable {
+  /** The type of the log entries that camera results are recorded to. */
+  private static final String RESULT_TYPE = "photonpacket:PhotonPipelineResult";
+
+  /** The initial size of the buffer a result is serialized into, which grows as needed. */
+  private static final int PACKET_SIZE = 512;
+
   public static record CameraConfig(String name, Transform3d robotToCam) {}
 
-  public static record PoseEstimate(EstimatedRobotPose estimatedPose, Matrix<N3, N1> standardDev) {}
+  public static record PoseEstimate(
+      String camera, EstimatedRobotPose estimatedPose, Matrix<N3, N1> standardDev) {}
+
+  /** A source of camera results, such as a camera or a recording of one. */
+  @FunctionalInterface
+  public static interface ResultSource {
+    /**
+     * Returns every result received since the last call, in the order they arrived.
+     *
+     * @return The unread results.
+     */
+    List<PhotonPipelineResult> unreadResults();
+  }
 
   private final PhotonCamera[] cameras;
   private final PhotonPoseEstimator[] estimators;
   private final PhotonCameraSim[] simCameras;
   private final PhotonPipelineResult[] lastResults;
 
+  // Where each camera's results come from, and the log entries they are recorded to, if any
+  private final ResultSource[] sources;
+  private final RawLogEntry[] recorders;
+
+  // Whether each camera produced an estimate on its last update, and the keys to log them under
+  private final boolean[] estimatesPresent;
+  private final String[] estimatesPresentKeys;
+
+  // Worker pool and per-camera tasks, for processing cameras concurrently
+  private final Optional<ExecutorService> workers;
+  private final List<Callable<List<PoseEstimate>>> tasks;
+
   private VisionSystemSim visionSim;
 
   /** A factory to create new vision classes with our two configured cameras. */
@@ -50,6 +91,11 @@ public class Vision implements Logged {
     estimators = new PhotonPoseEstimator[configs.length];
     simCameras = new PhotonCameraSim[configs.length];
     lastResults = new PhotonPipelineResult[configs.length];
+    sources = new ResultSource[configs.length];
+    recorders = new RawLogEntry[configs.length];
+    estimatesPresent = new boolean[configs.length];
+    estimatesPresentKeys = new String[configs.length];
+    tasks = new ArrayList<>(configs.length);
 
     for (int i = 0; i < configs.length; i++) {
       PhotonCamera camera = new PhotonCamera(configs[i].name());
@@ -62,11 +108,28 @@ public class Vision implements Logged {
       estimator.setMultiTagFallbackStrategy(PoseStrategy.LOWEST_AMBIGUITY);
       cameras[i] = camera;
       estimators[i] = estimator;
+      sources[i] = camera::getAllUnreadResults;
       lastResults[i] = new PhotonPipelineResult();
+      estimatesPresentKeys[i] = "estimates present " + i;
+
+      final int index = i;
+      tasks.add(() -> process(index));
 
       FaultLogger.register(camera);
     }
 
+    workers =
+        PARALLEL_PROCESSING && configs.length > 1
+            ? Optional.of(
+                Executors.newFixedThreadPool(
+                    Math.min(configs.length, Runtime.getRuntime().availableProcessors()),
+                    r -> {
+                      Thread thread = new Thread(r, "Vision");
+                      thread.setDaemon(true);
+                      return thread;
+                    }))
+            : Optional.empty();
+
     if (Robot.isSimulation()) {
       visionSim = new VisionSystemSim("main");
       visionSim.addAprilTags(VisionConstants.TAG_LAYOUT);
@@ -92,38 +155,120 @@ public class Vision implements Logged {
   }
 
   /**
-   * Returns a list of all currently visible pose estimates and their standard deviation vectors.
+   * Returns the name of the log entry that a camera's results are recorded to.
+   *
+   * @param camera The name of the camera.
+   * @return The name of the entry.
+   */
+  public static String resultsKey(String camera) {
+    return "/Vision/" + camera + "/results";
+  }
+
+  /**
+   * Records every result read from the cameras to a log, so that they can be replayed.
+   *
+   * @param log The log to record to.
+   */
+  public void record(DataLog log) {
+    for (int i = 0; i < cameras.length; i++) {
+      recorders[i] = new RawLogEntry(log, resultsKey(cameras[i].getName()), "", RESULT_TYPE);
+    }
+  }
+
+  /**
+   * Replaces where every camera's results come from, such as with results replayed from a log.
+   *
+   * @param sources The source of results for each camera, by camera name.
+   */
+  public void setSources(Function<String, ResultSource> sources) {
+    for (int i = 0; i < cameras.length; i++) {
+      this.sources[i] = sources.apply(cameras[i].getName());
+    }
+  }
+
+  /**
+   * Decodes a recorded camera result.
+   *
+   * @param data The serialized result.
+   * @param timestamp When the result was received, on the current clock, in microseconds.
+   * @return The result.
+   */
+  public static PhotonPipelineResult unpack(byte[] data, long timestamp) {
+    PhotonPipelineResult result = PhotonPipelineResult.photonStruct.unpack(new Packet(data));
+    // the capture time is then derived from the receive time, less the processing time
+    result.setReceiveTimestampMicros(timestamp);
+    return result;
+  }
+
+  /**
+   * Returns pose estimates and their standard deviation vectors for every camera result received
+   * since the last call.
+   *
+   * <p>Cameras are processed concurrently on a worker pool when {@link
+   * VisionConstants#PARALLEL_PROCESSING} is enabled. Either way, estimates are returned in
+   * timestamp order.
    *
    * @return An {@link EstimatedRobotPose} with an estimated pose, estimate timestamp, and targets
    *     used for estimation.
    */
   public PoseEstimate[] estimatedGlobalPoses() {
     List<PoseEstimate> estimates = new ArrayList<>();
-    for (int i = 0; i < estimators.length; i++) {
-      var unread = cameras[i].getAllUnreadResults();
-      PhotonPipelineResult result;
-      if (unread.size() > 1) {
-        // gets the latest result if there are multiple unread results
-        int maxIndex = 0;
-        double max = 0;
-        int unreadLength = unread.size();
-        for (int ie = 0; ie < unreadLength; ie++) {
-          double temp = unread.get(ie).getTimestampSeconds();
-          if (temp > max) {
-            max = temp;
-            maxIndex = ie;
-          }
+    if (workers.isPresent()) {
+      List<Future<List<PoseEstimate>>> results = List.of();
+      try {
+        results = workers.get().invokeAll(tasks);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      // futures are in camera order, and one camera failing never drops another's estimates
+      for (int i = 0; i < results.size(); i++) {
+        try {
+          estimates.addAll(results.get(i).get());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+          estimatesPresent[i] = false;
+          FaultLogger.report(
+              "Vision", cameras[i].getName() + " processing failed", FaultType.ERROR);
         }
-        result = unread.get(maxIndex);
-        lastResults[i] = result;
-      } else if (unread.size() == 1) {
-        result = unread.get(0);
-        lastResults[i] = result;
-      } else {
-        result = lastResults[i];
+      }
+    } else {
+      for (int i = 0; i < estimators.length; i++) {
+        estimates.addAll(process(i));
+      }
+    }
+
+    for (int i = 0; i < estimators.length; i++) {
+      log(estimatesPresentKeys[i], estimatesPresent[i]);
+    }
+
+    // merge deterministically, regardless of which camera finished first
+    estimates.sort(Comparator.comparingDouble(e -> e.estimatedPose().timestampSeconds));
+    return estimates.toArray(PoseEstimate[]::new);
+  }
+
+  /**
+   * Turns every unread result from a camera into pose estimates. Results that have already been
+   * read are never processed again.
+   *
+   * <p>This may run on a worker thread, so it must only touch the state of its own camera.
+   *
+   * @param i The index of the camera to process.
+   * @return The pose estimates from the camera, one for each usable unread result.
+   */
+  private List<PoseEstimate> process(int i) {
+    var unread = sources[i].unreadResults();
+    List<PoseEstimate> estimates = new ArrayList<>(unread.size());
+    boolean present = false;
+    for (PhotonPipelineResult result : unread) {
+      if (recorders[i] != null) {
+        Packet packet = new Packet(PACKET_SIZE);
+        PhotonPipelineResult.photonStruct.pack(packet, result);
+        // recorded when it was received, so replay hands it over no earlier than the robot saw it
+        recorders[i].append(packet.getWrittenDataCopy(), result.ntReceiveTimestampMicros);
       }
       var estimate = estimators[i].update(result);
-      log("estimates present " + i, estimate.isPresent());
+      present |= estimate.isPresent();
       estimate
           .filter(
               f ->
@@ -134,9 +279,17 @@ public class Vision implements Logged {
           .ifPresent(
               e ->
                   estimates.add(
-                      new PoseEstimate(e, estimationStdDevs(e.estimatedPose.toPose2d(), result))));
+                      new PoseEstimate(
+                          cameras[i].getName(),
+                          e,
+                          estimationStdDevs(e.estimatedPose.toPose2d(), result))));
     }
-    return estimates.toArray(PoseEstimate[]::new);
+    if (!unread.isEmpty()) {
+      // results are queued in the order they arrive, so the last one is the latest
+      lastResults[i] = unread.get(unread.size() - 1);
+    }
+    estimatesPresent[i] = present;
+    return estimates;
   }
 
   /**
@@ -193,6 +346,20 @@ public class Vision implements Logged {
     return estStdDevs;
   }
 
+  /**
+   * Sets the latency of every simulated camera. This method should not be called when code is
+   * running on the robot.
+   *
+   * @param averageMs The average latency, in milliseconds.
+   * @param stdDevMs The standard deviation of the latency, in milliseconds.
+   */
+  public void setSimLatency(double averageMs, double stdDevMs) {
+    for (PhotonCameraSim camera : simCameras) {
+      camera.prop.setAvgLatencyMs(averageMs);
+      camera.prop.setLatencyStdDevMs(stdDevMs);
+    }
+  }
+
   /**
    * Updates the vision field simulation. This method should not be called when code is running on
    * the robot.
@@ -200,4 +367,13 @@ public class Vision implements Logged {
   public void simulationPeriodic(Pose2d robotSimPose) {
     visionSim.update(robotSimPose);
   }
+
+  /** Shuts down the worker pool and closes every camera. */
+  @Override
+  public void close() {
+    workers.ifPresent(ExecutorService::shutdownNow);
+    for (PhotonCamera camera : cameras) {
+      camera.close();
+    }
+  }
 }
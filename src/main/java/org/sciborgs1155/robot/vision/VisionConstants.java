@@ -35,6 +35,9 @@ public class VisionConstants {
   public static final Matrix<N3, N1> SINGLE_TAG_STD_DEVS = VecBuilder.fill(1.5, 1.5, 7);
   public static final Matrix<N3, N1> MULTIPLE_TAG_STD_DEVS = VecBuilder.fill(0.3, 0.3, 4);
 
+  // Whether to process cameras concurrently on a worker pool
+  public static final boolean PARALLEL_PROCESSING = true;
+
   public static final double MAX_HEIGHT = 0.305;
   public static final double MAX_ANGLE = 0.3;
 
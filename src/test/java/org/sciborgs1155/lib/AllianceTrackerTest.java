@@ -0,0 +1,73 @@
+package org.sciborgs1155.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sciborgs1155.lib.UnitTestingUtil.setupTests;
+
+import edu.wpi.first.hal.AllianceStationID;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.DriverStation.Alliance;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AllianceTrackerTest {
+  private AllianceStationID station;
+
+  @BeforeEach
+  public void setup() {
+    setupTests();
+    station = DriverStationSim.getAllianceStationId();
+  }
+
+  @AfterEach
+  public void reset() {
+    DriverStationSim.setAllianceStationId(station);
+    DriverStationSim.notifyNewData();
+    AllianceTracker.refresh();
+  }
+
+  @Test
+  void refresh() {
+    DriverStationSim.setAllianceStationId(AllianceStationID.Red2);
+    DriverStationSim.notifyNewData();
+    AllianceTracker.refresh();
+    assertEquals(Alliance.Red, AllianceTracker.alliance());
+    assertTrue(AllianceTracker.isRed());
+    assertEquals(Rotation2d.kPi, AllianceTracker.rotation());
+
+    DriverStationSim.setAllianceStationId(AllianceStationID.Blue3);
+    DriverStationSim.notifyNewData();
+    AllianceTracker.refresh();
+    assertEquals(Alliance.Blue, AllianceTracker.alliance());
+    assertFalse(AllianceTracker.isRed());
+    assertEquals(Rotation2d.kZero, AllianceTracker.rotation());
+  }
+
+  @Test
+  void tracksDataEvents() throws InterruptedException {
+    AllianceTracker.start();
+    DriverStationSim.setAllianceStationId(AllianceStationID.Blue1);
+    DriverStationSim.notifyNewData();
+    AllianceTracker.refresh();
+    CountDownLatch tracked = new CountDownLatch(1);
+    AllianceTracker.onTrack =
+        () -> {
+          if (AllianceTracker.isRed()) {
+            tracked.countDown();
+          }
+        };
+    try {
+      DriverStationSim.setAllianceStationId(AllianceStationID.Red1);
+      DriverStationSim.notifyNewData();
+      assertTrue(tracked.await(1, TimeUnit.SECONDS));
+      assertTrue(AllianceTracker.isRed());
+    } finally {
+      AllianceTracker.onTrack = () -> {};
+    }
+  }
+}
@@ -1,16 +1,30 @@
 package org.sciborgs1155.lib;
 
+import static edu.wpi.first.units.Units.Seconds;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sciborgs1155.lib.UnitTestingUtil.fastForward;
 import static org.sciborgs1155.lib.UnitTestingUtil.setupTests;
 
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.revrobotics.spark.SparkFlex;
 import com.revrobotics.spark.SparkLowLevel.MotorType;
+import edu.wpi.first.hal.PowerDistributionFaults;
 import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.wpilibj.PowerDistribution;
+import edu.wpi.first.wpilibj.PowerDistribution.ModuleType;
+import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.sciborgs1155.lib.FaultLogger.Fault;
 import org.sciborgs1155.lib.FaultLogger.FaultType;
 
 public class FaultLoggerTest {
@@ -80,6 +94,73 @@ public class FaultLoggerTest {
     assertEquals(1, totalErrors.get().length);
   }
 
+  @Test
+  void duplicateRegistration() {
+    NetworkTable base = NetworkTableInstance.getDefault().getTable("Faults");
+    var activeWarnings =
+        base.getSubTable("Active Faults").getStringArrayTopic("warnings").subscribe(new String[10]);
+
+    FaultLogger.register(() -> true, "Duplicate Test", "Idk", FaultType.WARNING);
+    FaultLogger.register(() -> true, "Duplicate Test", "Idk", FaultType.WARNING);
+    FaultLogger.report("Duplicate Test", "Idk", FaultType.WARNING);
+    FaultLogger.update();
+
+    assertEquals(1, activeWarnings.get().length);
+    assertEquals(1, FaultLogger.totalFaults().size());
+  }
+
+  @Test
+  void polling() {
+    NetworkTable base = NetworkTableInstance.getDefault().getTable("Faults");
+    var activeErrors =
+        base.getSubTable("Active Faults").getStringArrayTopic("errors").subscribe(new String[10]);
+    Set<Thread> readers = ConcurrentHashMap.newKeySet();
+    FaultLogger.register(
+        () -> {
+          readers.add(Thread.currentThread());
+          return Optional.of(new Fault("Polled Test", "Idk", FaultType.ERROR));
+        });
+
+    // published once per scheduler run, as the robot publishes once per period
+    CommandScheduler.getInstance().getDefaultButtonLoop().bind(FaultLogger::update);
+    FaultLogger.startPolling(Seconds.of(0.02));
+    try {
+      fastForward(5);
+      assertEquals(1, activeErrors.get().length);
+      assertFalse(readers.isEmpty());
+      assertFalse(readers.contains(Thread.currentThread()));
+    } finally {
+      FaultLogger.stopPolling();
+      CommandScheduler.getInstance().getDefaultButtonLoop().clear();
+    }
+  }
+
+  @Test
+  void powerDistribution() {
+    List<String> names = List.of(FaultLogger.PowerDistributionReader.names);
+    assertEquals(27, names.size());
+    assertTrue(names.containsAll(List.of("Channel0BreakerFault", "Brownout", "HardwareFault")));
+
+    try (var pdh = new PowerDistribution(1, ModuleType.kRev)) {
+      var reader = new FaultLogger.PowerDistributionReader(pdh);
+
+      // a simulated hub reports no faults, and every getter reads
+      BitSet active = new BitSet();
+      reader.accept(active);
+      assertTrue(active.isEmpty());
+
+      // channel breaker faults come first, then brownout
+      reader.read(new PowerDistributionFaults(1 << 24), active);
+      assertEquals(1, active.cardinality());
+      Fault brownout = FaultLogger.fault(active.nextSetBit(0));
+      assertEquals(new Fault("Power Distribution", "Brownout", FaultType.ERROR), brownout);
+
+      FaultLogger.register(pdh);
+      FaultLogger.update();
+      assertTrue(FaultLogger.activeFaults().isEmpty());
+    }
+  }
+
   @Test
   void registerSpark() {
     SparkFlex spark = new SparkFlex(10, MotorType.kBrushless);
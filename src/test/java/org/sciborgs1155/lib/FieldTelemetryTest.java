@@ -0,0 +1,124 @@
+package org.sciborgs1155.lib;
+
+import static edu.wpi.first.units.Units.Seconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sciborgs1155.lib.UnitTestingUtil.fastForward;
+import static org.sciborgs1155.lib.UnitTestingUtil.setupTests;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.simulation.DriverStationSim;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class FieldTelemetryTest {
+  private Field2d field;
+  private FieldTelemetry telemetry;
+
+  @BeforeEach
+  public void setup() {
+    setupTests();
+    field = new Field2d();
+    telemetry = new FieldTelemetry(field, Seconds.of(0.1), 0.01, 0.01);
+  }
+
+  @AfterEach
+  public void reset() {
+    FieldTelemetry.setEnabled(true);
+    FieldTelemetry.disableDuringMatches(false);
+    DriverStationSim.setFmsAttached(false);
+    DriverStationSim.notifyNewData();
+  }
+
+  @Test
+  void rate() {
+    FieldTelemetry.Entry robot = telemetry.robot();
+    assertTrue(telemetry.due());
+    robot.set(new Pose2d(1, 2, Rotation2d.kZero));
+    telemetry.publish();
+    assertEquals(new Pose2d(1, 2, Rotation2d.kZero), field.getRobotPose());
+    assertFalse(telemetry.due());
+
+    // stored, but not sent until the period has passed
+    robot.set(new Pose2d(3, 4, Rotation2d.kZero));
+    telemetry.publish();
+    assertEquals(new Pose2d(1, 2, Rotation2d.kZero), field.getRobotPose());
+
+    fastForward(Seconds.of(0.1));
+    assertTrue(telemetry.due());
+    telemetry.publish();
+    assertEquals(new Pose2d(3, 4, Rotation2d.kZero), field.getRobotPose());
+  }
+
+  @Test
+  void threshold() {
+    FieldTelemetry.Entry robot = telemetry.robot();
+    robot.set(new Pose2d(1, 1, Rotation2d.kZero));
+    telemetry.publish();
+
+    // within both thresholds, so skipped
+    robot.set(new Pose2d(1.005, 1, Rotation2d.fromRadians(0.005)));
+    fastForward(Seconds.of(0.1));
+    telemetry.publish();
+    assertEquals(new Pose2d(1, 1, Rotation2d.kZero), field.getRobotPose());
+
+    // turned past the rotation threshold
+    robot.set(new Pose2d(1.005, 1, Rotation2d.fromRadians(0.02)));
+    fastForward(Seconds.of(0.1));
+    telemetry.publish();
+    assertEquals(new Pose2d(1.005, 1, Rotation2d.fromRadians(0.02)), field.getRobotPose());
+
+    // moved past the translation threshold
+    robot.set(new Pose2d(1.1, 1, Rotation2d.fromRadians(0.02)));
+    fastForward(Seconds.of(0.1));
+    telemetry.publish();
+    assertEquals(new Pose2d(1.1, 1, Rotation2d.fromRadians(0.02)), field.getRobotPose());
+  }
+
+  @Test
+  void clear() {
+    FieldTelemetry.Entry estimate = telemetry.object("estimate");
+    estimate.set(new Pose2d(1, 1, Rotation2d.kZero));
+    telemetry.publish();
+    assertEquals(1, field.getObject("estimate").getPoses().size());
+
+    estimate.clear();
+    fastForward(Seconds.of(0.1));
+    telemetry.publish();
+    assertTrue(field.getObject("estimate").getPoses().isEmpty());
+
+    estimate.set(new Pose2d(1, 1, Rotation2d.kZero));
+    fastForward(Seconds.of(0.1));
+    telemetry.publish();
+    assertEquals(1, field.getObject("estimate").getPoses().size());
+  }
+
+  @Test
+  void disableDuringMatches() {
+    FieldTelemetry.disableDuringMatches(true);
+    assertTrue(telemetry.due());
+
+    DriverStationSim.setFmsAttached(true);
+    DriverStationSim.notifyNewData();
+    assertFalse(telemetry.due());
+    telemetry.robot().set(new Pose2d(1, 2, Rotation2d.kZero));
+    telemetry.publish();
+    assertEquals(Pose2d.kZero, field.getRobotPose());
+
+    DriverStationSim.setFmsAttached(false);
+    DriverStationSim.notifyNewData();
+    assertTrue(telemetry.due());
+  }
+
+  @Test
+  void disabled() {
+    FieldTelemetry.setEnabled(false);
+    assertFalse(telemetry.due());
+    FieldTelemetry.setEnabled(true);
+    assertTrue(telemetry.due());
+  }
+}
@@ -0,0 +1,81 @@
+package org.sciborgs1155.lib;
+
+import static edu.wpi.first.units.Units.Seconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.math.MathSharedStore;
+import edu.wpi.first.math.filter.LinearFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class InputPipelineTest {
+
+  @ParameterizedTest
+  @ValueSource(doubles = {-1.2, -0.6, -0.05, 0, 0.1, 0.45, 0.9, 3})
+  void matchesStream(double input) {
+    InputStream stream =
+        InputStream.of(() -> input)
+            .negate()
+            .scale(() -> 0.8)
+            .add(0.05)
+            .clamp(1.0)
+            .deadband(0.1, 1.0)
+            .signedPow(2.0)
+            .map(x -> x * 3)
+            .scale(4.5);
+    InputStream pipeline =
+        InputPipeline.of(() -> input)
+            .negate()
+            .scale(() -> 0.8)
+            .add(0.05)
+            .clamp(1.0)
+            .deadband(0.1, 1.0)
+            .signedPow(2.0)
+            .map(x -> x * 3)
+            .scale(4.5)
+            .build();
+    assertEquals(stream.get(), pipeline.get(), 1e-12);
+  }
+
+  @Test
+  void readsSourceOnce() {
+    int[] reads = {0};
+    InputStream pipeline =
+        InputPipeline.of(() -> ++reads[0])
+            .pow(2)
+            .add(() -> 1)
+            .filter(LinearFilter.movingAverage(1))
+            .build();
+    assertEquals(0, reads[0]);
+    assertEquals(2, pipeline.get());
+    assertEquals(1, reads[0]);
+  }
+
+  @Test
+  void buildingDoesNotFeedFilters() {
+    InputStream stream = InputStream.of(() -> 4).filter(LinearFilter.movingAverage(2));
+    InputStream pipeline = InputPipeline.of(() -> 4).filter(LinearFilter.movingAverage(2)).build();
+    assertEquals(stream.get(), pipeline.get(), 1e-12);
+  }
+
+  @Test
+  void manyOperators() {
+    var builder = InputPipeline.of(() -> 1);
+    for (int i = 0; i < 20; i++) {
+      builder.add(1);
+    }
+    assertEquals(21, builder.build().get());
+  }
+
+  @Test
+  void rateLimit() {
+    UnitTestingUtil.setupTests();
+    InputStream stream = InputStream.of(() -> MathSharedStore.getTimestamp() * 2);
+    InputStream limited = InputPipeline.of(stream).rateLimit(1).build();
+    double initial = limited.get();
+    UnitTestingUtil.fastForward(Seconds.of(2));
+    assertEquals(4, stream.get() - initial, 0.1);
+    assertEquals(2, limited.get() - initial, 0.1);
+  }
+}
@@ -0,0 +1,88 @@
+package org.sciborgs1155.lib;
+
+import static edu.wpi.first.units.Units.Seconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import org.junit.jupiter.api.Test;
+
+public class InputStream2dTest {
+  private final double[] out = new double[2];
+
+  private InputStream2d stream(double x, double y) {
+    return InputStream2d.of(() -> x, () -> y);
+  }
+
+  private void assertOutput(double x, double y, InputStream2d stream) {
+    stream.get(out);
+    assertEquals(x, out[0], 1e-9);
+    assertEquals(y, out[1], 1e-9);
+  }
+
+  @Test
+  void scale() {
+    assertOutput(-3, 4, stream(3, -4).negate());
+    assertOutput(6, -8, stream(3, -4).scale(() -> 2));
+  }
+
+  @Test
+  void deadband() {
+    assertOutput(0, 0, stream(0.06, 0.08).deadband(0.2, 1));
+    // magnitude 0.6 is halfway through the band, and direction is kept
+    stream(0.36, 0.48).deadband(0.2, 1).get(out);
+    assertEquals(0.5, Math.hypot(out[0], out[1]), 1e-9);
+    assertEquals(0.75, out[1] / out[0], 1e-9);
+  }
+
+  @Test
+  void pow() {
+    assertOutput(0.15, 0.2, stream(0.3, 0.4).pow(2));
+    assertOutput(0, 0, stream(0, 0).pow(2));
+  }
+
+  @Test
+  void clamp() {
+    assertOutput(0.6, 0.8, stream(3, 4).clamp(1));
+    assertOutput(0.3, 0.4, stream(0.3, 0.4).clamp(1));
+  }
+
+  @Test
+  void rotate() {
+    assertOutput(-2, 1, stream(1, 2).rotate(() -> Rotation2d.kCCW_Pi_2));
+  }
+
+  @Test
+  void components() {
+    assertEquals(3, stream(3, 4).x().get());
+    assertEquals(4, stream(3, 4).y().get());
+    assertEquals(5, stream(3, 4).magnitude().get());
+  }
+
+  @Test
+  void rateLimit() {
+    UnitTestingUtil.setupTests();
+    double[] input = {0, 0};
+    int[] reads = {0};
+    InputStream2d limited =
+        InputStream2d.of(
+                () -> {
+                  reads[0]++;
+                  return input[0];
+                },
+                () -> input[1])
+            .rateLimit(1);
+    // building reads nothing, and the first poll seeds the limiter
+    assertEquals(0, reads[0]);
+    UnitTestingUtil.fastForward(Seconds.of(1));
+    limited.get(out);
+    assertEquals(0, Math.hypot(out[0], out[1]));
+    assertEquals(1, reads[0]);
+
+    input[0] = 3;
+    input[1] = 4;
+    UnitTestingUtil.fastForward(Seconds.of(2));
+    limited.get(out);
+    assertEquals(2, Math.hypot(out[0], out[1]), 0.1);
+    assertEquals(0.75, out[1] / out[0], 1e-9);
+  }
+}
@@ -78,4 +78,38 @@ public class InputStreamTest {
     assertEquals(4, stream.get() - initial, 0.1);
     assertEquals(2, limited.get() - initial, 0.1);
   }
+
+  @Test
+  void cached() {
+    UnitTestingUtil.setupTests();
+    int[] reads = {0};
+    InputStream cached = of(() -> ++reads[0]).cached();
+    InputStream sum = cached.add(cached).add(cached);
+
+    UnitTestingUtil.fastForward(1);
+    assertEquals(3, sum.get());
+    assertEquals(1, cached.get());
+    assertEquals(1, reads[0]);
+
+    UnitTestingUtil.fastForward(1);
+    assertEquals(6, sum.get());
+    assertEquals(2, reads[0]);
+  }
+
+  @Test
+  void cachedRateLimit() {
+    UnitTestingUtil.setupTests();
+    int[] reads = {0};
+    // starts at 0, then steps to 10; the limiter is seeded with the first read
+    InputStream limited = of(() -> reads[0]++ == 0 ? 0 : 10).rateLimit(1).cached();
+    InputStream both = limited.add(limited);
+
+    for (int tick = 1; tick <= 10; tick++) {
+      UnitTestingUtil.fastForward(1);
+      assertEquals(2 * limited.get(), both.get());
+      assertEquals(0.02 * tick, limited.get(), 1e-9);
+      // the limiter, and the source behind it, ran once this tick despite three reads
+      assertEquals(1 + tick, reads[0]);
+    }
+  }
 }
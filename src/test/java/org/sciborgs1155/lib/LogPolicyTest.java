@@ -0,0 +1,57 @@
+package org.sciborgs1155.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.epilogue.Epilogue;
+import edu.wpi.first.epilogue.Logged.Importance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sciborgs1155.lib.LogPolicy.Tier;
+
+public class LogPolicyTest {
+  @AfterEach
+  public void reset() {
+    LogPolicy.setDebug(false);
+  }
+
+  @Test
+  void tiers() {
+    int critical = 0;
+    int diagnostic = 0;
+    int debug = 0;
+    for (int i = 0; i < 10 * LogPolicy.DIAGNOSTIC_TICKS; i++) {
+      LogPolicy.update();
+      critical += LogPolicy.shouldLog(Tier.CRITICAL) ? 1 : 0;
+      diagnostic += LogPolicy.shouldLog(Tier.DIAGNOSTIC) ? 1 : 0;
+      debug += LogPolicy.shouldLog(Tier.DEBUG) ? 1 : 0;
+    }
+    assertEquals(10 * LogPolicy.DIAGNOSTIC_TICKS, critical);
+    assertEquals(10, diagnostic);
+    assertEquals(0, debug);
+  }
+
+  @Test
+  void debug() {
+    LogPolicy.setDebug(true);
+    LogPolicy.update();
+    assertTrue(LogPolicy.shouldLog(Tier.DEBUG));
+    assertTrue(LogPolicy.shouldLog(Tier.DIAGNOSTIC));
+    assertEquals(Importance.DEBUG, Epilogue.getConfig().minimumImportance);
+
+    LogPolicy.setDebug(false);
+    LogPolicy.update();
+    assertFalse(LogPolicy.shouldLog(Tier.DEBUG));
+  }
+
+  @Test
+  void epilogueImportance() {
+    for (int i = 0; i < LogPolicy.DIAGNOSTIC_TICKS; i++) {
+      LogPolicy.update();
+      assertEquals(
+          LogPolicy.shouldLog(Tier.DIAGNOSTIC) ? Importance.INFO : Importance.CRITICAL,
+          Epilogue.getConfig().minimumImportance);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package org.sciborgs1155.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import org.junit.jupiter.api.Test;
+import org.sciborgs1155.lib.LoopTimer.Histogram;
+
+public class LoopTimerTest {
+
+  @Test
+  void exactPercentiles() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 50; i++) {
+      histogram.record(i);
+    }
+    assertEquals(50, histogram.count());
+    assertEquals(25, histogram.percentile(0.5));
+    assertEquals(50, histogram.percentile(0.99));
+    assertEquals(50, histogram.max());
+  }
+
+  @Test
+  void approximatePercentiles() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 20000; i++) {
+      histogram.record(i);
+    }
+    assertEquals(10000, histogram.percentile(0.5), 10000 * 0.04);
+    assertEquals(19800, histogram.percentile(0.99), 19800 * 0.04);
+    assertEquals(20000, histogram.max());
+
+    histogram.reset();
+    assertEquals(0, histogram.count());
+    assertEquals(0, histogram.percentile(0.5));
+  }
+
+  @Test
+  void clampsOutliers() {
+    Histogram histogram = new Histogram();
+    histogram.record(-5);
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(0, histogram.percentile(0.5));
+    assertEquals(histogram.max(), histogram.percentile(1), histogram.max() * 0.04);
+  }
+
+  @Test
+  void phases() {
+    assertSame(LoopTimer.phase("Test"), LoopTimer.phase("Test"));
+    NetworkTable table = NetworkTableInstance.getDefault().getTable("LoopTimer/Test");
+    var p50 = table.getDoubleTopic("p50 (ms)").subscribe(-1);
+    var p99 = table.getDoubleTopic("p99 (ms)").subscribe(-1);
+    var max = table.getDoubleTopic("max (ms)").subscribe(-1);
+
+    // every run in the published window takes at least 10 ms
+    int[] runs = {0};
+    Runnable slow =
+        LoopTimer.timed(
+            "Test",
+            () -> {
+              runs[0]++;
+              try {
+                Thread.sleep(10);
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+              }
+            });
+    for (int i = 0; i < LoopTimer.PUBLISH_TICKS; i++) {
+      slow.run();
+      LoopTimer.update();
+    }
+    assertEquals(LoopTimer.PUBLISH_TICKS, runs[0]);
+    assertTrue(p50.get() >= 10 * 0.96);
+    assertTrue(p50.get() <= p99.get());
+    assertTrue(p99.get() <= max.get());
+
+    // the histogram resets after each publish, so a window of fast runs forgets the slow ones
+    Runnable fast = LoopTimer.timed("Test", () -> runs[0]++);
+    for (int i = 0; i < 2 * LoopTimer.PUBLISH_TICKS; i++) {
+      fast.run();
+      LoopTimer.update();
+    }
+    assertTrue(max.get() >= 0);
+    assertTrue(max.get() < 10);
+    assertTrue(p50.get() <= max.get());
+  }
+}
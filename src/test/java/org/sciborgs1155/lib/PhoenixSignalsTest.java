@@ -0,0 +1,64 @@
+package org.sciborgs1155.lib;
+
+import static edu.wpi.first.units.Units.Seconds;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sciborgs1155.lib.UnitTestingUtil.setupTests;
+
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.hardware.TalonFX;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class PhoenixSignalsTest {
+  private TalonFX talon;
+
+  @BeforeEach
+  public void setup() {
+    setupTests();
+    talon = new TalonFX(11);
+  }
+
+  @AfterEach
+  public void destroy() {
+    PhoenixSignals.desynchronize();
+    PhoenixSignals.unregisterAll();
+    talon.close();
+  }
+
+  @Test
+  void refresh() {
+    var position = talon.getPosition();
+    var velocity = talon.getVelocity();
+    PhoenixSignals.register(position, velocity);
+    PhoenixSignals.refresh();
+    assertEquals(0, position.getValueAsDouble(), 1e-6);
+    assertEquals(0, velocity.getValueAsDouble(), 1e-6);
+  }
+
+  @Test
+  void synchronize() {
+    var position = talon.getPosition();
+    PhoenixSignals.register(position);
+
+    // sim frames arrive on wall-clock time, so only the status is checked, with a generous timeout
+    PhoenixSignals.synchronize(Seconds.of(1));
+    assertTrue(PhoenixSignals.isSynchronized());
+    StatusCode status = PhoenixSignals.refresh();
+    assertTrue(status.isOK());
+    assertEquals(status, position.getStatus());
+
+    PhoenixSignals.desynchronize();
+    assertFalse(PhoenixSignals.isSynchronized());
+    status = PhoenixSignals.refresh();
+    assertTrue(status.isOK());
+    assertEquals(status, position.getStatus());
+  }
+
+  @Test
+  void refreshWithoutSignals() {
+    assertEquals(StatusCode.OK, PhoenixSignals.refresh());
+  }
+}
@@ -0,0 +1,62 @@
+package org.sciborgs1155.lib;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.util.datalog.DataLogWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class StructRecordTest {
+  @TempDir Path dir;
+
+  @Test
+  void layout() {
+    try (var log = new DataLogWriter(new ByteArrayOutputStream())) {
+      StructRecord record =
+          StructRecord.builder("Test").addDouble("a").addDoubles("b", 3).build(log, "/Test");
+      assertEquals("double a;double b[3];", record.schema());
+      assertEquals(32, record.size());
+    }
+  }
+
+  @Test
+  void append() throws IOException {
+    Path path = dir.resolve("record.wpilog");
+    try (var log = new DataLogWriter(path.toString())) {
+      StructRecord record =
+          StructRecord.builder("Test").addDouble("a").addDoubles("b", 2).build(log, "/Test");
+      record.put(1).put(new double[] {2, 3}).append();
+      record.put(4).put(5, 6).append();
+
+      // a partially packed record is rejected, and the next record starts fresh
+      record.put(7);
+      assertThrows(IllegalStateException.class, record::append);
+      record.put(8).put(9, 10).append();
+    }
+
+    try (WPILogFile log = WPILogFile.open(path)) {
+      WPILogFile.Entry schema = log.entry("/.schema/struct:Test");
+      assertEquals("structschema", schema.type());
+      WPILogFile.Cursor cursor = log.cursor(schema);
+      assertTrue(cursor.next());
+      assertEquals("double a;double b[2];", cursor.getString());
+
+      WPILogFile.Entry entry = log.entry("/Test");
+      assertEquals("struct:Test", entry.type());
+      assertEquals(3, entry.count());
+      cursor = log.cursor(entry);
+      for (double[] expected : new double[][] {{1, 2, 3}, {4, 5, 6}, {8, 9, 10}}) {
+        assertTrue(cursor.next());
+        assertArrayEquals(expected, cursor.getDoubles());
+      }
+      assertFalse(cursor.next());
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package org.sciborgs1155.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TrajectoryFileTest {
+  @TempDir Path dir;
+
+  final double DELTA = 1e-9;
+
+  @Test
+  void roundTrip() throws IOException {
+    Path path = dir.resolve("auto" + TrajectoryFile.EXTENSION);
+    TrajectoryFile.write(
+        path,
+        true,
+        List.of(
+            new TrajectoryFile.Sample(0, 1, 2, 0, 0, 0, 0),
+            new TrajectoryFile.Sample(1, 3, 2, Math.PI / 2, 2, 0, 1)),
+        List.of(
+            new TrajectoryFile.Sample(0, 16, 6, Math.PI, 0, 0, 0),
+            new TrajectoryFile.Sample(2, 12, 6, 3 * Math.PI / 4, -2, 0, 1)));
+
+    TrajectoryFile file = TrajectoryFile.open(path);
+    assertTrue(file.resetOdometry());
+    TrajectoryFile.Side blue = file.side(false);
+    TrajectoryFile.Side red = file.side(true);
+    assertEquals(2, blue.count());
+    assertEquals(1, blue.duration(), DELTA);
+    assertEquals(2, red.duration(), DELTA);
+
+    TrajectoryFile.Sample sample = new TrajectoryFile.Sample();
+    blue.sample(0.5, sample);
+    assertEquals(2, sample.x, DELTA);
+    assertEquals(2, sample.y, DELTA);
+    assertEquals(Math.PI / 4, sample.heading, DELTA);
+    assertEquals(1, sample.vx, DELTA);
+
+    red.sample(5, sample);
+    assertEquals(12, sample.x, DELTA);
+    red.sample(-1, sample);
+    assertEquals(16, sample.x, DELTA);
+  }
+
+  @Test
+  void headingTakesShortestPath() throws IOException {
+    Path path = dir.resolve("wrap" + TrajectoryFile.EXTENSION);
+    List<TrajectoryFile.Sample> samples =
+        List.of(
+            new TrajectoryFile.Sample(0, 0, 0, Math.PI - 0.1, 0, 0, 0),
+            new TrajectoryFile.Sample(1, 0, 0, -Math.PI + 0.1, 0, 0, 0));
+    TrajectoryFile.write(path, false, samples, samples);
+
+    TrajectoryFile file = TrajectoryFile.open(path);
+    assertFalse(file.resetOdometry());
+    TrajectoryFile.Sample sample = file.side(false).sample(0.5, new TrajectoryFile.Sample());
+    assertEquals(Math.PI, sample.heading, DELTA);
+  }
+
+  @Test
+  void notATrajectory() throws IOException {
+    Path path = dir.resolve("bad" + TrajectoryFile.EXTENSION);
+    Files.writeString(path, "not a trajectory file");
+    assertThrows(IOException.class, () -> TrajectoryFile.open(path));
+  }
+}
@@ -0,0 +1,119 @@
+package org.sciborgs1155.lib;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.util.datalog.DataLogWriter;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.StringLogEntry;
+import edu.wpi.first.util.datalog.StructArrayLogEntry;
+import edu.wpi.first.util.datalog.StructLogEntry;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WPILogFileTest {
+  @TempDir Path dir;
+
+  @Test
+  void typedRecords() throws IOException {
+    Path path = dir.resolve("typed.wpilog");
+    SwerveModuleState[] states = {
+      new SwerveModuleState(1, Rotation2d.kZero), new SwerveModuleState(2, Rotation2d.kPi)
+    };
+    try (var log = new DataLogWriter(path.toString())) {
+      new DoubleLogEntry(log, "/double").append(1.5, 10);
+      new DoubleArrayLogEntry(log, "/doubles").append(new double[] {1, 2, 3}, 20);
+      new StringLogEntry(log, "/string").append("hello", 30);
+      StructLogEntry.create(log, "/pose", Pose2d.struct)
+          .append(new Pose2d(1, 2, Rotation2d.kCW_90deg), 40);
+      StructArrayLogEntry.create(log, "/states", SwerveModuleState.struct).append(states, 50);
+    }
+
+    try (WPILogFile log = WPILogFile.open(path)) {
+      assertNull(log.entry("/missing"));
+
+      WPILogFile.Cursor cursor = log.cursor(log.entry("/double"));
+      assertTrue(cursor.next());
+      assertEquals(10, cursor.timestamp());
+      assertEquals(1.5, cursor.getDouble());
+      assertFalse(cursor.next());
+
+      cursor = log.cursor(log.entry("/doubles"));
+      assertTrue(cursor.next());
+      assertArrayEquals(new double[] {1, 2, 3}, cursor.getDoubles());
+
+      cursor = log.cursor(log.entry("/string"));
+      assertTrue(cursor.next());
+      assertEquals("hello", cursor.getString());
+
+      WPILogFile.Entry pose = log.entry("/pose");
+      assertEquals("struct:Pose2d", pose.type());
+      cursor = log.cursor(pose);
+      assertTrue(cursor.next());
+      assertEquals(new Pose2d(1, 2, Rotation2d.kCW_90deg), cursor.struct(Pose2d.struct));
+
+      cursor = log.cursor(log.entry("/states"));
+      assertTrue(cursor.next());
+      assertEquals(2, cursor.structCount(SwerveModuleState.struct));
+      assertArrayEquals(states, cursor.structArray(SwerveModuleState.struct));
+    }
+  }
+
+  @Test
+  void seek() throws IOException {
+    Path path = dir.resolve("seek.wpilog");
+    int records = WPILogFile.INDEX_STRIDE * 10;
+    try (var log = new DataLogWriter(path.toString())) {
+      DoubleLogEntry entry = new DoubleLogEntry(log, "/value");
+      DoubleLogEntry other = new DoubleLogEntry(log, "/other");
+      for (int i = 0; i < records; i++) {
+        entry.append(i, i * 20_000L);
+        other.append(-i, i * 20_000L + 1);
+      }
+    }
+
+    try (WPILogFile log = WPILogFile.open(path)) {
+      WPILogFile.Entry entry = log.entry("/value");
+      assertEquals(records, entry.count());
+      assertEquals(0, entry.firstTimestamp());
+      assertEquals((records - 1) * 20_000L, entry.lastTimestamp());
+
+      for (int target : new int[] {0, 1, 255, 256, 257, 1000, records - 1}) {
+        WPILogFile.Cursor cursor = log.cursor(entry, target * 20_000L);
+        assertTrue(cursor.next());
+        assertEquals(target, cursor.getDouble());
+      }
+      // between records, the next record is returned
+      WPILogFile.Cursor cursor = log.cursor(entry, 500 * 20_000L + 1);
+      assertTrue(cursor.next());
+      assertEquals(501, cursor.getDouble());
+      assertFalse(log.cursor(entry, records * 20_000L).next());
+
+      // a cursor over the whole file sees both entries
+      int count = 0;
+      cursor = log.cursor();
+      while (cursor.next()) {
+        count++;
+      }
+      assertTrue(count >= records * 2);
+    }
+  }
+
+  @Test
+  void notALog() throws IOException {
+    Path path = dir.resolve("bad.wpilog");
+    Files.writeString(path, "not a log file");
+    assertThrows(IOException.class, () -> WPILogFile.open(path));
+  }
+}
@@ -0,0 +1,79 @@
+package org.sciborgs1155.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.sciborgs1155.lib.UnitTestingUtil.*;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.util.datalog.DataLogWriter;
+import java.nio.file.Path;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sciborgs1155.robot.drive.Drive;
+import org.sciborgs1155.robot.drive.DriveConstants.ControlMode;
+import org.sciborgs1155.robot.drive.NoGyro;
+import org.sciborgs1155.robot.drive.SimModule;
+
+public class ReplayTest {
+  @TempDir Path dir;
+
+  Drive drive;
+
+  final double DELTA = 0.01;
+
+  @BeforeEach
+  public void setup() {
+    setupTests();
+  }
+
+  @AfterEach
+  public void destroy() throws Exception {
+    reset(drive);
+  }
+
+  @Test
+  public void replaysDrive() throws Exception {
+    Path path = dir.resolve("match.wpilog");
+    drive =
+        new Drive(
+            new NoGyro(),
+            new SimModule("FL"),
+            new SimModule("FR"),
+            new SimModule("RL"),
+            new SimModule("RR"));
+    Pose2d logged;
+    try (var log = new DataLogWriter(path.toString())) {
+      HotTelemetry telemetry = new HotTelemetry(log, drive, Optional.empty());
+      run(
+          drive.run(
+              () ->
+                  drive.setChassisSpeeds(
+                      new ChassisSpeeds(1, 0.5, 0), ControlMode.CLOSED_LOOP_VELOCITY)));
+      for (int i = 0; i < 100; i++) {
+        fastForward(1);
+        telemetry.write(0);
+      }
+      logged = drive.pose();
+    }
+    reset(drive);
+
+    try (Replay replay = Replay.open(path)) {
+      drive = replay.drive();
+      assertFalse(replay.finished());
+      int ticks = 0;
+      while (!replay.finished()) {
+        fastForward(1);
+        ticks++;
+      }
+      // every record is replayed once, and odometry retraces the logged path
+      assertEquals(100, ticks);
+      assertEquals(logged.getX(), replay.loggedPose().getX(), 1e-9);
+      assertEquals(logged.getX(), drive.pose().getX(), DELTA);
+      assertEquals(logged.getY(), drive.pose().getY(), DELTA);
+    }
+  }
+}
@@ -0,0 +1,106 @@
+package org.sciborgs1155.robot;
+
+import static edu.wpi.first.units.Units.Meters;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.sciborgs1155.lib.UnitTestingUtil.fastForward;
+import static org.sciborgs1155.lib.UnitTestingUtil.reset;
+import static org.sciborgs1155.lib.UnitTestingUtil.setupTests;
+import static org.sciborgs1155.robot.drive.DriveConstants.CHASSIS_WIDTH;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.sciborgs1155.robot.drive.Drive;
+import org.sciborgs1155.robot.drive.SimDrivetrain;
+import org.sciborgs1155.robot.drive.SimModule;
+
+public class SimDrivetrainTest {
+  SimModule[] modules;
+  SimDrivetrain drivetrain;
+
+  final double DELTA = 0.01;
+
+  @BeforeEach
+  public void setup() {
+    setupTests();
+    modules =
+        new SimModule[] {
+          new SimModule("FL"), new SimModule("FR"), new SimModule("RL"), new SimModule("RR")
+        };
+    drivetrain = new SimDrivetrain(modules);
+    drivetrain.setPose(new Pose2d(8, 4, Rotation2d.kZero));
+  }
+
+  @AfterEach
+  public void destroy() throws Exception {
+    reset(drivetrain);
+  }
+
+  /** Drives every module forward at a voltage for a number of ticks. */
+  private void drive(double voltage, int ticks) {
+    for (int i = 0; i < ticks; i++) {
+      for (SimModule module : modules) {
+        module.updateInputs(Rotation2d.kZero, voltage);
+        module.refresh();
+      }
+      drivetrain.update();
+    }
+  }
+
+  @Test
+  public void followsWheels() {
+    drive(1, 100);
+    assertEquals(8 + modules[0].drivePosition(), drivetrain.pose().getX(), DELTA);
+    assertEquals(4, drivetrain.pose().getY(), DELTA);
+    assertEquals(0, drivetrain.rotation2d().getRadians(), DELTA);
+  }
+
+  @Test
+  public void slipsUnderHardAcceleration() {
+    drive(12, 10);
+    assertTrue(drivetrain.pose().getX() - 8 < modules[0].drivePosition() - DELTA);
+  }
+
+  @Test
+  public void stopsAtWalls() {
+    drive(-12, 250);
+    assertEquals(CHASSIS_WIDTH.in(Meters) / 2, drivetrain.pose().getX(), DELTA);
+    assertEquals(4, drivetrain.pose().getY(), DELTA);
+  }
+
+  @Test
+  public void placedInsideWalls() {
+    double extent = CHASSIS_WIDTH.in(Meters) / 2;
+    Pose2d placed = drivetrain.setPose(new Pose2d(0, 0, Rotation2d.kPi));
+    assertEquals(extent, placed.getX(), DELTA);
+    assertEquals(extent, placed.getY(), DELTA);
+    assertEquals(placed, drivetrain.pose());
+
+    // already inside the walls, so it stays where it was placed
+    drive(0, 50);
+    assertEquals(placed.getX(), drivetrain.pose().getX(), DELTA);
+    assertEquals(placed.getY(), drivetrain.pose().getY(), DELTA);
+  }
+
+  @Test
+  public void odometryStartsAtOrigin() throws Exception {
+    Drive drive = Drive.create();
+    try {
+      fastForward(50);
+      assertEquals(drive.simulatedPose().getX(), drive.pose().getX(), DELTA);
+      assertEquals(drive.simulatedPose().getY(), drive.pose().getY(), DELTA);
+      Rotation2d error = drive.simulatedPose().getRotation().minus(drive.pose().getRotation());
+      assertEquals(0, error.getRadians(), DELTA);
+
+      drive.resetOdometry(Pose2d.kZero);
+      fastForward(50);
+      assertEquals(drive.simulatedPose().getX(), drive.pose().getX(), DELTA);
+      assertEquals(drive.simulatedPose().getY(), drive.pose().getY(), DELTA);
+    } finally {
+      reset(drive);
+    }
+  }
+}
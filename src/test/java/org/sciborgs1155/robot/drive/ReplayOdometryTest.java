@@ -0,0 +1,87 @@
+package org.sciborgs1155.robot.drive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.sciborgs1155.lib.UnitTestingUtil.*;
+import static org.sciborgs1155.robot.drive.DriveConstants.ODOMETRY_FREQUENCY;
+
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.util.datalog.DataLogWriter;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sciborgs1155.robot.HotTelemetry;
+import org.sciborgs1155.robot.Replay;
+import org.sciborgs1155.robot.drive.DriveConstants.ControlMode;
+
+public class ReplayOdometryTest {
+  @TempDir Path dir;
+
+  Drive drive;
+  OdometryThread thread;
+
+  final double DELTA = 1e-6;
+
+  @BeforeEach
+  public void setup() {
+    setupTests();
+  }
+
+  @AfterEach
+  public void destroy() throws Exception {
+    reset(drive, thread);
+  }
+
+  @Test
+  public void replaysSamples() throws Exception {
+    Path path = dir.resolve("match.wpilog");
+    GyroIO gyro = new NoGyro();
+    List<ModuleIO> modules =
+        List.of(
+            new SimModule("FL"), new SimModule("FR"), new SimModule("RL"), new SimModule("RR"));
+    drive = new Drive(gyro, modules.get(0), modules.get(1), modules.get(2), modules.get(3));
+    // samples the modules as the robot would, into an estimator standing in for the robot's
+    thread = new OdometryThread(gyro, modules, ODOMETRY_FREQUENCY);
+    SwerveDrivePoseEstimator sampled =
+        new SwerveDrivePoseEstimator(
+            drive.kinematics, gyro.rotation2d(), drive.modulePositions(), drive.pose());
+
+    try (var log = new DataLogWriter(path.toString())) {
+      HotTelemetry telemetry = new HotTelemetry(log, drive, Optional.empty());
+      // replay starts from this first record, at the same pose as the estimator
+      telemetry.write(0);
+      thread.record(log);
+      thread.start();
+      run(
+          drive.run(
+              () ->
+                  drive.setChassisSpeeds(
+                      new ChassisSpeeds(1, 0.5, 0), ControlMode.CLOSED_LOOP_VELOCITY)));
+      for (int i = 0; i < 100; i++) {
+        fastForward(1);
+        thread.drain(sampled);
+        telemetry.write(0);
+      }
+    }
+    thread.close();
+    reset(drive);
+
+    try (Replay replay = Replay.open(path)) {
+      drive = replay.drive();
+      while (!replay.finished()) {
+        fastForward(1);
+      }
+      // the replayed estimator is fed the same samples, at the same timestamps
+      Pose2d expected = sampled.getEstimatedPosition();
+      assertEquals(expected.getX(), drive.pose().getX(), DELTA);
+      assertEquals(expected.getY(), drive.pose().getY(), DELTA);
+      assertEquals(
+          expected.getRotation().getRadians(), drive.pose().getRotation().getRadians(), DELTA);
+    }
+  }
+}
@@ -0,0 +1,581 @@
+package org.sciborgs1155.lib;
+
+import edu.wpi.first.util.struct.Struct;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A read-only, memory-mapped view of a WPILOG file, as written by {@code DataLogManager}.
+ *
+ * <p>The file is mapped in 1 GiB segments, so logs larger than a single buffer can be read, and
+ * pages are only loaded by the operating system as records are touched. Opening a file scans the
+ * record headers once to index every entry by name, along with a sparse index of timestamps for
+ * seeking. Records are then streamed through a {@link Cursor}, which decodes values in place
+ * rather than copying records onto the heap.
+ *
+ * <pre>
+ * try (WPILogFile log = WPILogFile.open(path)) {
+ *   WPILogFile.Entry pose = log.entry("NT:/Robot/drive/pose"); // the last entry with this name
+ *   WPILogFile.Cursor cursor = log.cursor(pose, 15_000_000); // starting 15 seconds in
+ *   while (cursor.next()) {
+ *     Pose2d p = cursor.struct(Pose2d.struct);
+ *   }
+ * }
+ * </pre>
+ */
+public final class WPILogFile implements AutoCloseable {
+  /** The size of each mapped segment of the file. */
+  static final long SEGMENT = 1L << 30;
+
+  /** The overlap between segments, which is the largest record that can be read. */
+  static final int OVERLAP = 1 << 24;
+
+  /** The number of records of an entry between each point in its timestamp index. */
+  static final int INDEX_STRIDE = 256;
+
+  private static final byte[] MAGIC = "WPILOG".getBytes(StandardCharsets.US_ASCII);
+  private static final int CONTROL_START = 0;
+  private static final int CONTROL_FINISH = 1;
+  private static final int CONTROL_SET_METADATA = 2;
+
+  private final Path path;
+  private final FileChannel channel;
+  private final long length;
+  private final ByteBuffer[] segments;
+  private final int version;
+  private final String extraHeader;
+  private final long dataStart;
+
+  private final List<Entry> entries = new ArrayList<>();
+  private final Map<String, List<Entry>> entriesByName = new LinkedHashMap<>();
+  private final Map<Integer, Entry> open = new HashMap<>();
+
+  private WPILogFile(Path path) throws IOException {
+    this.path = path;
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    length = channel.size();
+
+    segments = new ByteBuffer[(int) Math.max(1, (length + SEGMENT - 1) / SEGMENT)];
+    for (int i = 0; i < segments.length; i++) {
+      long start = i * SEGMENT;
+      long size = Math.min(SEGMENT + OVERLAP, length - start);
+      MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+      segments[i] = segment.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    ByteBuffer header = segments[0];
+    if (length < 12 || !Arrays.equals(MAGIC, bytes(header, 0, MAGIC.length))) {
+      channel.close();
+      throw new IOException(path + " is not a WPILOG file");
+    }
+    version = header.getShort(6) & 0xFFFF;
+    if (version < 0x0100) {
+      channel.close();
+      throw new IOException(path + " has unsupported WPILOG version " + version);
+    }
+    int extraLength = header.getInt(8);
+    extraHeader = new String(bytes(header, 12, extraLength), StandardCharsets.UTF_8);
+    dataStart = 12L + extraLength;
+
+    index();
+  }
+
+  /**
+   * Opens and indexes a WPILOG file.
+   *
+   * @param path The path to the file.
+   * @return The opened file.
+   * @throws IOException If the file cannot be read or is not a WPILOG file.
+   */
+  public static WPILogFile open(Path path) throws IOException {
+    return new WPILogFile(path);
+  }
+
+  /** Scans every record header once, building the index of entries. */
+  private void index() {
+    Cursor cursor = new Cursor(null, dataStart, length);
+    while (cursor.advance()) {
+      if (cursor.id == 0) {
+        control(cursor);
+        continue;
+      }
+      Entry entry = open.get(cursor.id);
+      if (entry != null) {
+        entry.add(cursor.timestamp, cursor.offset);
+      }
+    }
+    for (Entry entry : open.values()) {
+      entry.end = length;
+    }
+    open.clear();
+  }
+
+  /** Applies a control record. */
+  private void control(Cursor cursor) {
+    if (cursor.size < 5) {
+      return;
+    }
+    ByteBuffer segment = cursor.segment;
+    int pos = cursor.payload;
+    int type = segment.get(pos);
+    int id = segment.getInt(pos + 1);
+    switch (type) {
+      case CONTROL_START -> {
+        pos += 5;
+        String name = string(segment, pos);
+        pos += 4 + segment.getInt(pos);
+        String typeString = string(segment, pos);
+        pos += 4 + segment.getInt(pos);
+        String metadata = string(segment, pos);
+        Entry entry = new Entry(id, name, typeString, metadata, cursor.offset);
+        Entry previous = open.put(id, entry);
+        if (previous != null) {
+          previous.end = cursor.offset;
+        }
+        entries.add(entry);
+        entriesByName.computeIfAbsent(name, n -> new ArrayList<>(1)).add(entry);
+      }
+      case CONTROL_FINISH -> {
+        Entry entry = open.remove(id);
+        if (entry != null) {
+          entry.end = cursor.offset;
+        }
+      }
+      case CONTROL_SET_METADATA -> {
+        Entry entry = open.get(id);
+        if (entry != null) {
+          entry.metadata = string(segment, pos + 5);
+        }
+      }
+      default -> {}
+    }
+  }
+
+  /** Returns the path of the file. */
+  public Path path() {
+    return path;
+  }
+
+  /** Returns the size of the file, in bytes. */
+  public long length() {
+    return length;
+  }
+
+  /** Returns the WPILOG format version, as major in the high byte and minor in the low byte. */
+  public int version() {
+    return version;
+  }
+
+  /** Returns the extra header string written by the logger. */
+  public String extraHeader() {
+    return extraHeader;
+  }
+
+  /** Returns every entry in the file, in the order they were started. */
+  public List<Entry> entries() {
+    return Collections.unmodifiableList(entries);
+  }
+
+  /** Returns the names of every entry in the file, in the order they were first started. */
+  public Collection<String> names() {
+    return Collections.unmodifiableSet(entriesByName.keySet());
+  }
+
+  /**
+   * Returns every entry with a name, in the order they were started. A name has more than one entry
+   * if it was finished and started again.
+   *
+   * @param name The name of the entry.
+   * @return The entries, which may be empty.
+   */
+  public List<Entry> entries(String name) {
+    return Collections.unmodifiableList(entriesByName.getOrDefault(name, List.of()));
+  }
+
+  /**
+   * Returns the last entry started with a name.
+   *
+   * @param name The name of the entry.
+   * @return The entry, or null if there is none.
+   */
+  public Entry entry(String name) {
+    List<Entry> named = entriesByName.get(name);
+    return named == null ? null : named.get(named.size() - 1);
+  }
+
+  /**
+   * Returns a cursor over every data record in the file.
+   *
+   * @return A cursor, positioned before the first record.
+   */
+  public Cursor cursor() {
+    return new Cursor(null, dataStart, length);
+  }
+
+  /**
+   * Returns a cursor over the records of an entry.
+   *
+   * @param entry The entry to read.
+   * @return A cursor, positioned before the entry's first record.
+   */
+  public Cursor cursor(Entry entry) {
+    return new Cursor(entry, entry.start, entry.end);
+  }
+
+  /**
+   * Returns a cursor over the records of an entry, starting from a timestamp.
+   *
+   * @param entry The entry to read.
+   * @param timestamp The timestamp to start at, in microseconds.
+   * @return A cursor, positioned before the entry's first record at or after the timestamp.
+   */
+  public Cursor cursor(Entry entry, long timestamp) {
+    int i = Arrays.binarySearch(entry.indexTimestamps, 0, entry.indexSize, timestamp);
+    // start from the last indexed record strictly before the timestamp
+    i = i >= 0 ? i - 1 : -i - 2;
+    while (i > 0 && entry.indexTimestamps[i] == timestamp) {
+      i--;
+    }
+    Cursor cursor = new Cursor(entry, i >= 0 ? entry.indexOffsets[i] : entry.start, entry.end);
+    cursor.minTimestamp = timestamp;
+    return cursor;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /** Reads an unsigned little-endian integer of 1 to 8 bytes. */
+  private static long readLong(ByteBuffer segment, int pos, int bytes) {
+    long value = 0;
+    for (int i = 0; i < bytes; i++) {
+      value |= (segment.get(pos + i) & 0xFFL) << (8 * i);
+    }
+    return value;
+  }
+
+  /** Copies bytes out of a segment. */
+  private static byte[] bytes(ByteBuffer segment, int pos, int length) {
+    byte[] bytes = new byte[length];
+    segment.get(pos, bytes);
+    return bytes;
+  }
+
+  /** Reads a string prefixed by its length. */
+  private static String string(ByteBuffer segment, int pos) {
+    return new String(bytes(segment, pos + 4, segment.getInt(pos)), StandardCharsets.UTF_8);
+  }
+
+  /** An entry in the log, from its start record to its finish record. */
+  public static final class Entry {
+    private final int id;
+    private final String name;
+    private final String type;
+    private String metadata;
+    private final long start;
+    private long end;
+
+    private int count = 0;
+    private long firstTimestamp = -1;
+    private long lastTimestamp = -1;
+    private long[] indexTimestamps = new long[1];
+    private long[] indexOffsets = new long[1];
+    private int indexSize = 0;
+
+    private Entry(int id, String name, String type, String metadata, long start) {
+      this.id = id;
+      this.name = name;
+      this.type = type;
+      this.metadata = metadata;
+      this.start = start;
+    }
+
+    /** Records a data record of this entry in the index. */
+    private void add(long timestamp, long offset) {
+      if (count % INDEX_STRIDE == 0) {
+        if (indexSize == indexTimestamps.length) {
+          indexTimestamps = Arrays.copyOf(indexTimestamps, indexSize * 2);
+          indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+        }
+        indexTimestamps[indexSize] = timestamp;
+        indexOffsets[indexSize] = offset;
+        indexSize++;
+      }
+      if (count == 0) {
+        firstTimestamp = timestamp;
+      }
+      lastTimestamp = timestamp;
+      count++;
+    }
+
+    /** Returns the id of the entry in the log. Ids may be reused by later entries. */
+    public int id() {
+      return id;
+    }
+
+    /** Returns the name of the entry. */
+    public String name() {
+      return name;
+    }
+
+    /** Returns the type string of the entry, such as "double" or "struct:Pose2d[]". */
+    public String type() {
+      return type;
+    }
+
+    /** Returns the last metadata set for the entry. */
+    public String metadata() {
+      return metadata;
+    }
+
+    /** Returns the number of data records of the entry. */
+    public int count() {
+      return count;
+    }
+
+    /** Returns the timestamp of the entry's first record in microseconds, or -1 if it has none. */
+    public long firstTimestamp() {
+      return firstTimestamp;
+    }
+
+    /** Returns the timestamp of the entry's last record in microseconds, or -1 if it has none. */
+    public long lastTimestamp() {
+      return lastTimestamp;
+    }
+
+    @Override
+    public String toString() {
+      return name + " (" + type + ", " + count + " records)";
+    }
+  }
+
+  /**
+   * A position in the log, which decodes the payload of the record it is on in place.
+   *
+   * <p>A cursor is reused for every record it visits, so streaming through a log only allocates
+   * for values that are themselves objects.
+   */
+  public final class Cursor {
+    private final Entry entry;
+    private final long end;
+    private long next;
+    private long minTimestamp = Long.MIN_VALUE;
+
+    private long offset;
+    private int id;
+    private long timestamp;
+    private ByteBuffer segment;
+    private int payload;
+    private int size;
+
+    private Cursor(Entry entry, long start, long end) {
+      this.entry = entry;
+      this.next = start;
+      this.end = end;
+    }
+
+    /**
+     * Moves to the next data record, of this cursor's entry if it has one.
+     *
+     * @return Whether there was another record.
+     */
+    public boolean next() {
+      while (advance()) {
+        if (id == 0) {
+          continue;
+        }
+        if (entry != null && (id != entry.id || timestamp < minTimestamp)) {
+          continue;
+        }
+        return true;
+      }
+      return false;
+    }
+
+    /** Moves to the next record of any kind, returning false at the end or a truncated record. */
+    private boolean advance() {
+      if (next >= end) {
+        return false;
+      }
+      int index = (int) (next / SEGMENT);
+      ByteBuffer current = segments[index];
+      int pos = (int) (next - index * SEGMENT);
+      if (pos >= current.limit()) {
+        return false;
+      }
+      int header = current.get(pos) & 0xFF;
+      int idLength = (header & 0x3) + 1;
+      int sizeLength = ((header >> 2) & 0x3) + 1;
+      int timestampLength = ((header >> 4) & 0x7) + 1;
+      int headerLength = 1 + idLength + sizeLength + timestampLength;
+      if (next + headerLength > length) {
+        return false;
+      }
+      long payloadSize = readLong(current, pos + 1 + idLength, sizeLength);
+      if (next + headerLength + payloadSize > length) {
+        return false;
+      }
+      if (headerLength + payloadSize > OVERLAP) {
+        throw new IllegalStateException(
+            "Record of " + payloadSize + " bytes at " + next + " in " + path + " is too large");
+      }
+
+      offset = next;
+      id = (int) readLong(current, pos + 1, idLength);
+      timestamp = readLong(current, pos + 1 + idLength + sizeLength, timestampLength);
+      segment = current;
+      payload = pos + headerLength;
+      size = (int) payloadSize;
+      next += headerLength + payloadSize;
+      return true;
+    }
+
+    /** Returns the id of the current record's entry. */
+    public int id() {
+      return id;
+    }
+
+    /** Returns the timestamp of the current record, in microseconds. */
+    public long timestamp() {
+      return timestamp;
+    }
+
+    /** Returns the size of the current record's payload, in bytes. */
+    public int size() {
+      return size;
+    }
+
+    /** Returns the position of the current record in the file. */
+    public long offset() {
+      return offset;
+    }
+
+    /** Decodes the current record as a double. */
+    public double getDouble() {
+      return segment.getDouble(payload);
+    }
+
+    /** Decodes the current record as a float. */
+    public float getFloat() {
+      return segment.getFloat(payload);
+    }
+
+    /** Decodes the current record as an int64. */
+    public long getInteger() {
+      return segment.getLong(payload);
+    }
+
+    /** Decodes the current record as a boolean. */
+    public boolean getBoolean() {
+      return segment.get(payload) != 0;
+    }
+
+    /** Decodes the current record as a UTF-8 string. */
+    public String getString() {
+      return new String(bytes(segment, payload, size), StandardCharsets.UTF_8);
+    }
+
+    /** Copies the current record's raw payload. */
+    public byte[] getRaw() {
+      return bytes(segment, payload, size);
+    }
+
+    /**
+     * Decodes the current record as a double array, into a caller-owned buffer.
+     *
+     * @param out The buffer to fill, which may be shorter than the record.
+     * @return The number of doubles in the record.
+     */
+    public int getDoubles(double[] out) {
+      int count = size / Double.BYTES;
+      for (int i = 0; i < Math.min(count, out.length); i++) {
+        out[i] = segment.getDouble(payload + i * Double.BYTES);
+      }
+      return count;
+    }
+
+    /**
+     * Decodes the current record as a double array.
+     *
+     * @return The values.
+     */
+    public double[] getDoubles() {
+      double[] out = new double[size / Double.BYTES];
+      getDoubles(out);
+      return out;
+    }
+
+    /**
+     * Returns a read-only view of the current record's payload, valid until the file is closed.
+     *
+     * @return The payload, in little-endian order.
+     */
+    public ByteBuffer payload() {
+      return segment.slice(payload, size).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Decodes the current record as a struct, such as a {@code Pose2d}.
+     *
+     * @param struct The struct serializer.
+     * @return The value.
+     */
+    public <T> T struct(Struct<T> struct) {
+      return struct.unpack(payload());
+    }
+
+    /**
+     * Decodes one element of a struct array record, such as a {@code SwerveModuleState[]}.
+     *
+     * @param struct The struct serializer.
+     * @param index The index of the element.
+     * @return The element.
+     */
+    public <T> T struct(Struct<T> struct, int index) {
+      int elementSize = struct.getSize();
+      return struct.unpack(
+          segment.slice(payload + index * elementSize, elementSize).order(ByteOrder.LITTLE_ENDIAN));
+    }
+
+    /**
+     * Returns the number of elements in a struct array record.
+     *
+     * @param struct The struct serializer.
+     * @return The number of elements.
+     */
+    public int structCount(Struct<?> struct) {
+      return size / struct.getSize();
+    }
+
+    /**
+     * Decodes the current record as a struct array.
+     *
+     * @param struct The struct serializer.
+     * @return The elements.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T[] structArray(Struct<T> struct) {
+      T[] out = (T[]) Array.newInstance(struct.getTypeClass(), structCount(struct));
+      for (int i = 0; i < out.length; i++) {
+        out[i] = struct(struct, i);
+      }
+      return out;
+    }
+  }
+}
@@ -0,0 +1,263 @@
+package org.sciborgs1155.robot;
+
+import static org.sciborgs1155.robot.HotTelemetry.*;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj.Timer;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.photonvision.targeting.PhotonPipelineResult;
+import org.sciborgs1155.lib.WPILogFile;
+import org.sciborgs1155.robot.drive.Drive;
+import org.sciborgs1155.robot.drive.ReplayGyro;
+import org.sciborgs1155.robot.drive.ReplayModule;
+import org.sciborgs1155.robot.drive.ReplayOdometry;
+import org.sciborgs1155.robot.vision.Vision;
+
+/**
+ * Replay feeds the sensor inputs recorded in a match log back into {@link Drive} and {@link
+ * Vision}, so that pose estimation and control can be re-run offline.
+ *
+ * <p>Drive inputs are read from the {@link HotTelemetry} record, and camera results from the
+ * entries written by {@link Vision#record}. When the robot sampled odometry on its own thread, the
+ * samples recorded by {@link Drive#recordOdometry} are replayed into the pose estimator as well,
+ * so that pose is estimated from the same samples as in the match. The log's clock starts at the
+ * first record and then follows the FPGA timer, so replay runs as fast as simulated time is
+ * stepped.
+ *
+ * <pre>
+ * try (Replay replay = Replay.open(path)) {
+ *   Drive drive = replay.drive(); // replays the modules and gyro
+ *   Vision vision = Vision.create();
+ *   vision.setSources(replay::camera); // replays every camera
+ *   while (!replay.finished()) {
+ *     fastForward(1);
+ *     drive.updateEstimates(vision.estimatedGlobalPoses());
+ *   }
+ * }
+ * </pre>
+ */
+public final class Replay implements AutoCloseable {
+  /** Recorded values within this long after the replay clock are still considered current. */
+  private static final double TOLERANCE = 1e-3;
+
+  private final WPILogFile log;
+  private final WPILogFile.Cursor hot;
+
+  // the record that is current, and the next record, which is read ahead
+  private double[] record = new double[FIELDS];
+  private double[] next = new double[FIELDS];
+  private boolean pending;
+
+  // the log's clock minus the FPGA clock, in seconds, or NaN before the first update
+  private double offset = Double.NaN;
+
+  private Replay(WPILogFile log) {
+    this.log = log;
+    WPILogFile.Entry entry = log.entry(KEY);
+    if (entry == null) {
+      throw new IllegalArgumentException(log.path() + " has no " + KEY + " entry to replay");
+    }
+    hot = log.cursor(entry);
+    pending = read(next);
+    if (pending) {
+      System.arraycopy(next, 0, record, 0, FIELDS);
+    }
+  }
+
+  /**
+   * Opens a log for replay.
+   *
+   * @param path The path to the log.
+   * @return The replay.
+   * @throws IOException If the file cannot be read.
+   */
+  public static Replay open(Path path) throws IOException {
+    return new Replay(WPILogFile.open(path));
+  }
+
+  /** Reads the next hot record into a buffer, returning whether there was one. */
+  private boolean read(double[] buffer) {
+    if (!hot.next()) {
+      return false;
+    }
+    hot.getDoubles(buffer);
+    return true;
+  }
+
+  /**
+   * Advances to the latest record at or before the replay clock. This is called by every replayed
+   * input, and does nothing if the clock has not moved.
+   */
+  public synchronized void update() {
+    if (Double.isNaN(offset)) {
+      offset = next[TIMESTAMP] - Timer.getFPGATimestamp();
+    }
+    double now = Timer.getFPGATimestamp() + offset + TOLERANCE;
+    while (pending && next[TIMESTAMP] <= now) {
+      double[] current = record;
+      record = next;
+      next = current;
+      pending = read(next);
+    }
+  }
+
+  /**
+   * Returns how far the log's clock is ahead of the FPGA clock, which is fixed once replay starts.
+   *
+   * @return The offset, in seconds.
+   */
+  public synchronized double offset() {
+    update();
+    return offset;
+  }
+
+  /**
+   * Returns the latest time on the log's clock whose records have been replayed.
+   *
+   * @return The time, in microseconds.
+   */
+  public synchronized long now() {
+    return (long) ((Timer.getFPGATimestamp() + offset() + TOLERANCE) * 1e6);
+  }
+
+  /**
+   * Returns whether every drive record has been replayed.
+   *
+   * @return Whether the replay has finished.
+   */
+  public synchronized boolean finished() {
+    return !pending;
+  }
+
+  /**
+   * Returns the time of the current record, on the robot's clock when it was logged.
+   *
+   * @return The timestamp, in seconds.
+   */
+  public synchronized double timestamp() {
+    return record[TIMESTAMP];
+  }
+
+  /**
+   * Creates a drivetrain whose modules, gyro, and odometry samples replay this log, starting at the
+   * logged pose.
+   *
+   * @return The drivetrain.
+   */
+  public Drive drive() {
+    Drive drive =
+        new Drive(
+            new ReplayGyro(this),
+            new ReplayModule("FL", this, 0),
+            new ReplayModule("FR", this, 1),
+            new ReplayModule("RL", this, 2),
+            new ReplayModule("RR", this, 3));
+    ReplayOdometry.open(this, log).ifPresent(drive::setOdometrySource);
+    drive.resetOdometry(loggedPose());
+    return drive;
+  }
+
+  /**
+   * Returns a source that replays the results of a camera, for {@link Vision#setSources}. A camera
+   * without recorded results never produces any.
+   *
+   * @param name The name of the camera.
+   * @return The camera's results.
+   */
+  public Vision.ResultSource camera(String name) {
+    WPILogFile.Entry entry = log.entry(Vision.resultsKey(name));
+    return entry == null ? List::of : new Camera(log.cursor(entry));
+  }
+
+  /**
+   * Returns the pose estimated by the robot when the current record was logged, to compare against.
+   *
+   * @return The logged pose.
+   */
+  public synchronized Pose2d loggedPose() {
+    return new Pose2d(record[POSE_X], record[POSE_Y], new Rotation2d(record[POSE_THETA]));
+  }
+
+  /**
+   * Returns the logged drive encoder position of a module.
+   *
+   * @param module The index of the module.
+   * @return The position, in meters.
+   */
+  public synchronized double drivePosition(int module) {
+    return record[MODULE_POSITION + module];
+  }
+
+  /**
+   * Returns the logged drive encoder velocity of a module.
+   *
+   * @param module The index of the module.
+   * @return The velocity, in meters / second.
+   */
+  public synchronized double driveVelocity(int module) {
+    return record[MODULE_VELOCITY + module];
+  }
+
+  /**
+   * Returns the logged turn angle of a module.
+   *
+   * @param module The index of the module.
+   * @return The angle, in radians.
+   */
+  public synchronized double rotation(int module) {
+    return record[MODULE_ANGLE + module];
+  }
+
+  /**
+   * Returns the logged gyro yaw.
+   *
+   * @return The yaw, in radians.
+   */
+  public synchronized double gyroYaw() {
+    return record[GYRO_YAW];
+  }
+
+  /**
+   * Returns the logged gyro rate.
+   *
+   * @return The rate of rotation.
+   */
+  public synchronized double gyroRate() {
+    return record[GYRO_RATE];
+  }
+
+  @Override
+  public void close() throws IOException {
+    log.close();
+  }
+
+  /**
+   * Replays the recorded results of one camera, shifted onto the replay clock. Each result is
+   * handed over once the replay clock reaches when the robot received it.
+   */
+  private final class Camera implements Vision.ResultSource {
+    private final WPILogFile.Cursor cursor;
+    private boolean pending;
+
+    private Camera(WPILogFile.Cursor cursor) {
+      this.cursor = cursor;
+      pending = cursor.next();
+    }
+
+    @Override
+    public List<PhotonPipelineResult> unreadResults() {
+      long offsetMicros = (long) (offset() * 1e6);
+      long now = now();
+      List<PhotonPipelineResult> results = new ArrayList<>();
+      while (pending && cursor.timestamp() <= now) {
+        results.add(Vision.unpack(cursor.getRaw(), cursor.timestamp() - offsetMicros));
+        pending = cursor.next();
+      }
+      return results;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package org.sciborgs1155.robot.drive;
+
+import edu.wpi.first.math.geometry.Rotation3d;
+import org.sciborgs1155.robot.Replay;
+
+/**
+ * GyroIO implementation that replays a match log. The logged yaw already includes any resets made
+ * during the match, so resetting does nothing.
+ */
+public class ReplayGyro implements GyroIO {
+  private final Replay replay;
+
+  /**
+   * Creates a replayed gyro.
+   *
+   * @param replay The replay to read from.
+   */
+  public ReplayGyro(Replay replay) {
+    this.replay = replay;
+  }
+
+  @Override
+  public void close() throws Exception {}
+
+  @Override
+  public double rate() {
+    replay.update();
+    return replay.gyroRate();
+  }
+
+  @Override
+  public Rotation3d rotation3d() {
+    replay.update();
+    return new Rotation3d(0, 0, replay.gyroYaw());
+  }
+
+  @Override
+  public void reset() {}
+}
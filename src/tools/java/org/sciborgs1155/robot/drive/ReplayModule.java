@@ -0,0 +1,115 @@
+package org.sciborgs1155.robot.drive;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import org.sciborgs1155.robot.Replay;
+import org.sciborgs1155.robot.drive.DriveConstants.ControlMode;
+
+/**
+ * A module whose sensors replay a match log. Setpoints are stored, so that replayed control logic
+ * can be inspected, but never actuate anything.
+ */
+public class ReplayModule implements ModuleIO {
+  private final String name;
+  private final Replay replay;
+  private final int index;
+
+  private double drivePosition;
+  private double driveVelocity;
+  private Rotation2d rotation = Rotation2d.kZero;
+  private double positionOffset = 0;
+
+  private SwerveModuleState setpoint = new SwerveModuleState();
+
+  /**
+   * Creates a replayed module.
+   *
+   * @param name The name of the module.
+   * @param replay The replay to read from.
+   * @param index The index of the module in the log.
+   */
+  public ReplayModule(String name, Replay replay, int index) {
+    this.name = name;
+    this.replay = replay;
+    this.index = index;
+  }
+
+  @Override
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public void setDriveVoltage(double voltage) {}
+
+  @Override
+  public void setTurnVoltage(double voltage) {}
+
+  @Override
+  public void refresh() {
+    replay.update();
+    drivePosition = replay.drivePosition(index) - positionOffset;
+    driveVelocity = replay.driveVelocity(index);
+    rotation = Rotation2d.fromRadians(replay.rotation(index));
+  }
+
+  @Override
+  public double drivePosition() {
+    return drivePosition;
+  }
+
+  @Override
+  public double driveVelocity() {
+    return driveVelocity;
+  }
+
+  @Override
+  public Rotation2d rotation() {
+    return rotation;
+  }
+
+  @Override
+  public SwerveModuleState state() {
+    return new SwerveModuleState(driveVelocity, rotation);
+  }
+
+  @Override
+  public SwerveModulePosition position() {
+    return new SwerveModulePosition(drivePosition, rotation);
+  }
+
+  @Override
+  public SwerveModuleState desiredState() {
+    return setpoint;
+  }
+
+  @Override
+  public void resetEncoders() {
+    positionOffset = replay.drivePosition(index);
+    drivePosition = 0;
+  }
+
+  @Override
+  public void setDriveSetpoint(double velocity) {
+    setpoint = new SwerveModuleState(velocity, setpoint.angle);
+  }
+
+  @Override
+  public void setTurnSetpoint(double angle) {
+    setpoint = new SwerveModuleState(setpoint.speedMetersPerSecond, Rotation2d.fromRadians(angle));
+  }
+
+  @Override
+  public void updateSetpoint(SwerveModuleState setpoint, ControlMode mode) {
+    setpoint.optimize(rotation);
+    setpoint.cosineScale(rotation);
+    this.setpoint = setpoint;
+  }
+
+  @Override
+  public void updateInputs(Rotation2d angle, double voltage) {}
+
+  @Override
+  public void close() {}
+}
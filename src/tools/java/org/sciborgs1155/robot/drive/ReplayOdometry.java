@@ -0,0 +1,68 @@
+package org.sciborgs1155.robot.drive;
+
+import static org.sciborgs1155.robot.drive.OdometryThread.*;
+
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import java.util.Optional;
+import org.sciborgs1155.lib.WPILogFile;
+import org.sciborgs1155.robot.Replay;
+
+/**
+ * Replays the odometry samples that the robot fed into its pose estimator, at the same timestamps
+ * and in the same ticks as it did. Each sample is handed over once the replay clock reaches when it
+ * was drained.
+ */
+public final class ReplayOdometry implements OdometrySource {
+  private final Replay replay;
+  private final WPILogFile.Cursor cursor;
+  private final double[] sample;
+  private final SwerveModulePosition[] positions;
+  private boolean pending;
+
+  private ReplayOdometry(Replay replay, WPILogFile.Cursor cursor) {
+    this.replay = replay;
+    this.cursor = cursor;
+    pending = cursor.next();
+    int modules = pending ? (cursor.size() / Double.BYTES - DISTANCE) / 2 : 0;
+    sample = new double[DISTANCE + 2 * modules];
+    positions = new SwerveModulePosition[modules];
+    for (int m = 0; m < modules; m++) {
+      positions[m] = new SwerveModulePosition();
+    }
+  }
+
+  /**
+   * Opens the odometry samples recorded in a log, if the robot recorded any.
+   *
+   * @param replay The replay whose clock to follow.
+   * @param log The log to read from.
+   * @return The samples, or empty if the robot only updated odometry once per tick.
+   */
+  public static Optional<ReplayOdometry> open(Replay replay, WPILogFile log) {
+    WPILogFile.Entry entry = log.entry(KEY);
+    return entry == null
+        ? Optional.empty()
+        : Optional.of(new ReplayOdometry(replay, log.cursor(entry)));
+  }
+
+  @Override
+  public void drain(SwerveDrivePoseEstimator estimator) {
+    double offset = replay.offset();
+    long now = replay.now();
+    while (pending && cursor.timestamp() <= now) {
+      cursor.getDoubles(sample);
+      for (int m = 0; m < positions.length; m++) {
+        positions[m].distanceMeters = sample[DISTANCE + m];
+        positions[m].angle = Rotation2d.fromRadians(sample[DISTANCE + positions.length + m]);
+      }
+      estimator.updateWithTime(
+          sample[TIMESTAMP] - offset, Rotation2d.fromRadians(sample[YAW]), positions);
+      pending = cursor.next();
+    }
+  }
+
+  @Override
+  public void close() {}
+}
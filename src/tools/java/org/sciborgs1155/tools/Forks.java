@@ -0,0 +1,75 @@
+package org.sciborgs1155.tools;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Forks JVMs that run a tool's work, and collects what they report.
+ *
+ * <p>A fork reports results by printing lines that start with a prefix, which are returned without
+ * the prefix. Everything else it prints is ignored, except for the last line, which usually
+ * explains why a fork died.
+ */
+final class Forks {
+  /**
+   * The output of a fork.
+   *
+   * @param lines The reported lines, without their prefix.
+   * @param last The last other line printed, or "no output".
+   */
+  static record Output(List<String> lines, String last) {}
+
+  private Forks() {}
+
+  /**
+   * Starts a JVM with this JVM's classpath and library path.
+   *
+   * @param main The class to run.
+   * @param args The arguments to its main method.
+   * @return The forked process.
+   * @throws IOException If the process could not be started.
+   */
+  static Process start(Class<?> main, List<String> args) throws IOException {
+    List<String> command = new ArrayList<>();
+    command.add(ProcessHandle.current().info().command().orElse("java"));
+    // setupTests initializes the HAL within an assert
+    command.add("-ea");
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add("-Djava.library.path=" + System.getProperty("java.library.path"));
+    command.add(main.getName());
+    command.addAll(args);
+    return new ProcessBuilder(command).redirectErrorStream(true).start();
+  }
+
+  /**
+   * Reads a fork's output until it exits.
+   *
+   * @param process The fork.
+   * @param prefix The prefix of reported lines.
+   * @return The fork's output.
+   */
+  static Output collect(Process process, String prefix) {
+    List<String> lines = new ArrayList<>();
+    String last = "no output";
+    try (var reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.startsWith(prefix)) {
+          lines.add(line.substring(prefix.length()));
+        } else if (!line.isBlank()) {
+          last = line.strip();
+        }
+      }
+      process.waitFor();
+    } catch (IOException e) {
+      last = e.toString();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return new Output(lines, last);
+  }
+}
@@ -0,0 +1,73 @@
+package org.sciborgs1155.tools;
+
+import static org.sciborgs1155.lib.UnitTestingUtil.fastForward;
+import static org.sciborgs1155.lib.UnitTestingUtil.reset;
+import static org.sciborgs1155.lib.UnitTestingUtil.setupTests;
+
+import java.nio.file.Path;
+import org.sciborgs1155.robot.Replay;
+import org.sciborgs1155.robot.drive.Drive;
+import org.sciborgs1155.robot.vision.Vision;
+
+/**
+ * Replays match logs through the current drive and vision code, faster than real time.
+ *
+ * <p>For each log, the recorded module, gyro and camera inputs are fed into a fresh {@link Drive}
+ * and {@link Vision}, and the replayed pose estimate is compared against the pose the robot
+ * estimated during the match. This shows how changes to pose estimation would have behaved on real
+ * data, without deploying.
+ *
+ * <pre>
+ * ./gradlew replayLog --args="logs"
+ * </pre>
+ */
+public final class LogReplay {
+  private LogReplay() {}
+
+  public static void main(String[] args) throws Exception {
+    if (args.length < 1) {
+      System.err.println("usage: replayLog <file or directory>");
+      System.exit(1);
+    }
+    setupTests();
+    for (Path path : LogScan.logs(Path.of(args[0]))) {
+      replay(path);
+    }
+    System.exit(0);
+  }
+
+  /** Replays one log, printing how far the replayed pose strayed from the logged pose. */
+  private static void replay(Path path) throws Exception {
+    long start = System.nanoTime();
+    try (Replay replay = Replay.open(path)) {
+      Drive drive = replay.drive();
+      Vision vision = Vision.create();
+      vision.setSources(replay::camera);
+
+      double startTime = replay.timestamp();
+      int ticks = 0;
+      double squaredError = 0;
+      double maxError = 0;
+      while (!replay.finished()) {
+        fastForward(1);
+        drive.updateEstimates(vision.estimatedGlobalPoses());
+
+        double error =
+            drive.pose().getTranslation().getDistance(replay.loggedPose().getTranslation());
+        squaredError += error * error;
+        maxError = Math.max(maxError, error);
+        ticks++;
+      }
+
+      System.out.printf(
+          "%s: replayed %.1f s in %.1f s, pose error rms %.3f m, max %.3f m, final %s%n",
+          path,
+          replay.timestamp() - startTime,
+          (System.nanoTime() - start) / 1e9,
+          Math.sqrt(squaredError / Math.max(ticks, 1)),
+          maxError,
+          drive.pose());
+      reset(drive, vision);
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package org.sciborgs1155.tools;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Pose3d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.util.struct.Struct;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.sciborgs1155.lib.WPILogFile;
+
+/**
+ * Scans wpilog files from the command line.
+ *
+ * <p>Given a file or a directory of files, every log is indexed and its entries are listed with
+ * their record counts and time spans. Given an entry prefix as well, the records of every matching
+ * entry are printed, decoded by type.
+ *
+ * <pre>
+ * ./gradlew scanLog --args="logs"
+ * ./gradlew scanLog --args="logs/FRC_20250301_153000.wpilog NT:/Robot/drive/pose"
+ * </pre>
+ */
+public final class LogScan {
+  /** Struct types decoded by name, covering the drive and vision values the robot logs. */
+  private static final Map<String, Struct<?>> STRUCTS =
+      Map.of(
+          "struct:Pose2d", Pose2d.struct,
+          "struct:Pose3d", Pose3d.struct,
+          "struct:SwerveModuleState", SwerveModuleState.struct,
+          "struct:SwerveModulePosition", SwerveModulePosition.struct);
+
+  private LogScan() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.err.println("usage: scanLog <file or directory> [entry prefix]");
+      System.exit(1);
+    }
+    String prefix = args.length > 1 ? args[1] : null;
+    for (Path path : logs(Path.of(args[0]))) {
+      scan(path, prefix);
+    }
+  }
+
+  /** Returns the log at a path, or every log in a directory. */
+  static List<Path> logs(Path path) throws IOException {
+    if (!Files.isDirectory(path)) {
+      return List.of(path);
+    }
+    try (Stream<Path> files = Files.list(path)) {
+      return files.filter(p -> p.toString().endsWith(".wpilog")).sorted().toList();
+    }
+  }
+
+  /** Indexes a log, and prints its entries or the records of matching entries. */
+  private static void scan(Path path, String prefix) throws IOException {
+    long start = System.nanoTime();
+    try (WPILogFile log = WPILogFile.open(path)) {
+      long records = log.entries().stream().mapToLong(WPILogFile.Entry::count).sum();
+      System.out.printf(
+          "%s: %.1f MB, %d entries, %d records, indexed in %.0f ms%n",
+          path,
+          log.length() / 1e6,
+          log.entries().size(),
+          records,
+          (System.nanoTime() - start) / 1e6);
+
+      for (WPILogFile.Entry entry : log.entries()) {
+        if (prefix == null) {
+          System.out.printf(
+              "  %-60s %-32s %8d  %9.3f s - %9.3f s%n",
+              entry.name(),
+              entry.type(),
+              entry.count(),
+              entry.firstTimestamp() / 1e6,
+              entry.lastTimestamp() / 1e6);
+        } else if (entry.name().startsWith(prefix)) {
+          print(log, entry);
+        }
+      }
+    }
+  }
+
+  /** Prints every record of an entry. */
+  private static void print(WPILogFile log, WPILogFile.Entry entry) {
+    System.out.println(entry);
+    WPILogFile.Cursor cursor = log.cursor(entry);
+    while (cursor.next()) {
+      System.out.printf("  %10.6f  %s%n", cursor.timestamp() / 1e6, decode(cursor, entry.type()));
+    }
+  }
+
+  /** Decodes the current record of a cursor as a string, by the type of its entry. */
+  private static String decode(WPILogFile.Cursor cursor, String type) {
+    return switch (type) {
+      case "double" -> Double.toString(cursor.getDouble());
+      case "float" -> Float.toString(cursor.getFloat());
+      case "int64" -> Long.toString(cursor.getInteger());
+      case "boolean" -> Boolean.toString(cursor.getBoolean());
+      case "string", "json" -> cursor.getString();
+      case "double[]" -> Arrays.toString(cursor.getDoubles());
+      default -> {
+        boolean array = type.endsWith("[]");
+        Struct<?> struct = STRUCTS.get(array ? type.substring(0, type.length() - 2) : type);
+        if (struct == null) {
+          yield cursor.size() + " bytes";
+        }
+        yield array
+            ? Arrays.toString(cursor.structArray(struct))
+            : cursor.struct(struct).toString();
+      }
+    };
+  }
+}
@@ -0,0 +1,343 @@
+package org.sciborgs1155.tools;
+
+import static edu.wpi.first.units.Units.Seconds;
+import static org.sciborgs1155.lib.UnitTestingUtil.TICK_RATE;
+import static org.sciborgs1155.lib.UnitTestingUtil.fastForward;
+import static org.sciborgs1155.lib.UnitTestingUtil.reset;
+import static org.sciborgs1155.lib.UnitTestingUtil.setupTests;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.path.PathPlannerPath;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+import edu.wpi.first.wpilibj2.command.Command;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.ToDoubleFunction;
+import org.sciborgs1155.robot.commands.Autos;
+import org.sciborgs1155.robot.drive.Drive;
+import org.sciborgs1155.robot.vision.Vision;
+
+/**
+ * Runs every auto routine many times under randomized noise, and reports how consistently each
+ * one ends where it should.
+ *
+ * <p>Each trial draws its own {@link Noise}: wheel slip, gyro drift, camera latency, and battery
+ * resistance. The robot's actual pose is tracked separately from its estimate, by integrating how
+ * far the modules really moved over the ground, and is what the simulated cameras see. Trials are
+ * seeded by their index, so any trial can be rerun exactly, and are split across one forked JVM
+ * per core.
+ *
+ * <pre>
+ * ./gradlew monteCarlo # 1000 trials of every auto
+ * ./gradlew monteCarlo --args="Two --trials=200 --forks=4 --seed=7" # autos starting with Two
+ * </pre>
+ */
+public final class MonteCarloRunner {
+  /** The prefix of every line a fork writes to report a trial. */
+  private static final String RESULT = "TRIAL\t";
+
+  private static final String CHILD = "--child";
+  private static final String TRIALS = "--trials=";
+  private static final String FORKS = "--forks=";
+  private static final String SEED = "--seed=";
+
+  private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+
+  private MonteCarloRunner() {}
+
+  /**
+   * The noise applied to one trial.
+   *
+   * @param slip The average fraction of wheel travel lost to slip.
+   * @param slipStdDev The standard deviation of the slip, each tick.
+   * @param gyroDrift The rate the gyro drifts, in radians / second.
+   * @param gyroNoise The standard deviation of each gyro reading, in radians.
+   * @param latency The average camera latency, in milliseconds.
+   * @param latencyStdDev The standard deviation of the camera latency, in milliseconds.
+   * @param batteryVoltage The battery's voltage at rest.
+   * @param batteryResistance The battery's internal resistance, in ohms.
+   */
+  static record Noise(
+      double slip,
+      double slipStdDev,
+      double gyroDrift,
+      double gyroNoise,
+      double latency,
+      double latencyStdDev,
+      double batteryVoltage,
+      double batteryResistance) {
+    /** Draws noise for a trial, centered on what we see on a real field. */
+    static Noise sample(Random random) {
+      return new Noise(
+          random.nextDouble() * 0.08,
+          0.02,
+          random.nextGaussian() * Math.toRadians(1) / 60,
+          Math.toRadians(0.1),
+          Math.max(1, 12 + random.nextGaussian() * 3),
+          2 + random.nextDouble() * 3,
+          11.8 + random.nextDouble(),
+          0.012 + random.nextDouble() * 0.013);
+    }
+  }
+
+  /**
+   * The outcome of one trial.
+   *
+   * @param auto The name of the auto.
+   * @param completed Whether the auto finished in time.
+   * @param seconds How long the auto ran.
+   * @param endError The distance between where the robot ended and the auto's final pose.
+   * @param headingError The angle between the robot's final heading and the auto's, in degrees.
+   * @param estimateError The distance between where the robot ended and where it thought it was.
+   */
+  static record Trial(
+      String auto,
+      boolean completed,
+      double seconds,
+      double endError,
+      double headingError,
+      double estimateError) {
+    static Trial parse(String line) {
+      String[] fields = line.split("\t");
+      return new Trial(
+          fields[0],
+          Boolean.parseBoolean(fields[1]),
+          Double.parseDouble(fields[2]),
+          Double.parseDouble(fields[3]),
+          Double.parseDouble(fields[4]),
+          Double.parseDouble(fields[5]));
+    }
+
+    String format() {
+      return String.join(
+          "\t",
+          RESULT + auto,
+          Boolean.toString(completed),
+          Double.toString(seconds),
+          Double.toString(endError),
+          Double.toString(headingError),
+          Double.toString(estimateError));
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0 && args[0].equals(CHILD)) {
+      runChild(args);
+      System.exit(0);
+    }
+
+    String prefix = "";
+    int trials = 1000;
+    int forks = Runtime.getRuntime().availableProcessors();
+    long seed = 1155;
+    for (String arg : args) {
+      if (arg.startsWith(TRIALS)) {
+        trials = Integer.parseInt(arg.substring(TRIALS.length()));
+      } else if (arg.startsWith(FORKS)) {
+        forks = Integer.parseInt(arg.substring(FORKS.length()));
+      } else if (arg.startsWith(SEED)) {
+        seed = Long.parseLong(arg.substring(SEED.length()));
+      } else {
+        prefix = arg;
+      }
+    }
+
+    final String filter = prefix;
+    List<String> autos =
+        AutoBuilder.getAllAutoNames().stream().filter(a -> a.startsWith(filter)).sorted().toList();
+    if (autos.isEmpty()) {
+      System.out.println("No autos in deploy/pathplanner/autos start with \"" + prefix + "\"");
+      System.exit(0);
+    }
+    forks = Math.max(1, Math.min(forks, trials));
+
+    long start = System.nanoTime();
+    List<CompletableFuture<Forks.Output>> outputs = new ArrayList<>();
+    for (int fork = 0; fork < forks; fork++) {
+      List<String> childArgs =
+          new ArrayList<>(
+              List.of(
+                  CHILD,
+                  Long.toString(seed),
+                  Integer.toString(fork),
+                  Integer.toString(forks),
+                  Integer.toString(trials)));
+      childArgs.addAll(autos);
+      Process process = Forks.start(MonteCarloRunner.class, childArgs);
+      outputs.add(CompletableFuture.supplyAsync(() -> Forks.collect(process, RESULT)));
+    }
+
+    Map<String, List<Trial>> results = new TreeMap<>();
+    for (var output : outputs) {
+      Forks.Output out = output.get();
+      if (out.lines().isEmpty()) {
+        System.out.println("A fork reported no trials: " + out.last());
+      }
+      for (String line : out.lines()) {
+        Trial trial = Trial.parse(line);
+        results.computeIfAbsent(trial.auto(), a -> new ArrayList<>()).add(trial);
+      }
+    }
+
+    for (var entry : results.entrySet()) {
+      report(entry.getKey(), entry.getValue());
+    }
+    System.out.printf(
+        "%d trials of %d autos on %d forks in %.1f s%n",
+        trials, autos.size(), forks, (System.nanoTime() - start) / 1e9);
+  }
+
+  /** Prints the distributions of an auto's trials. */
+  private static void report(String auto, List<Trial> trials) {
+    List<Trial> completed = trials.stream().filter(Trial::completed).toList();
+    System.out.printf("%s: %d of %d completed%n", auto, completed.size(), trials.size());
+    if (completed.isEmpty()) {
+      return;
+    }
+    print("time to complete (s)", completed, Trial::seconds);
+    print("end pose error (m)", completed, Trial::endError);
+    print("end heading error (deg)", completed, Trial::headingError);
+    print("estimate error (m)", completed, Trial::estimateError);
+  }
+
+  /** Prints the percentiles of one value across trials. */
+  private static void print(String name, List<Trial> trials, ToDoubleFunction<Trial> value) {
+    double[] values = trials.stream().mapToDouble(value).sorted().toArray();
+    StringBuilder line = new StringBuilder(String.format("  %-26s", name));
+    for (double percentile : PERCENTILES) {
+      int index = Math.max(0, (int) Math.ceil(percentile * values.length) - 1);
+      line.append(String.format(" p%-3.0f %8.3f", percentile * 100, values[index]));
+    }
+    line.append(String.format(" max %8.3f", values[values.length - 1]));
+    System.out.println(line);
+  }
+
+  /** Runs this fork's share of the trials of every auto. */
+  private static void runChild(String[] args) throws Exception {
+    long seed = Long.parseLong(args[1]);
+    int fork = Integer.parseInt(args[2]);
+    int forks = Integer.parseInt(args[3]);
+    int trials = Integer.parseInt(args[4]);
+    List<String> autos = Arrays.asList(args).subList(5, args.length);
+
+    setupTests();
+    // cameras are expensive to create, so every trial in this fork shares them
+    try (Vision vision = Vision.create()) {
+      for (String auto : autos) {
+        Pose2d target = endPose(auto);
+        for (int trial = fork; trial < trials; trial += forks) {
+          Random random = new Random(seed * 1_000_003 + auto.hashCode() * 10_007L + trial);
+          Trial result;
+          try {
+            result = runTrial(auto, target, vision, Noise.sample(random), random);
+          } catch (Exception e) {
+            // a trial that crashes counts as incomplete, and the rest still run
+            e.printStackTrace();
+            result = new Trial(auto, false, 0, Double.NaN, Double.NaN, Double.NaN);
+          }
+          System.out.println(result.format());
+        }
+      }
+    }
+  }
+
+  /** Returns the pose at the end of an auto's last path. */
+  private static Pose2d endPose(String auto) throws Exception {
+    List<PathPlannerPath> paths = PathPlannerAuto.getPathGroupFromAutoFile(auto);
+    if (paths.isEmpty()) {
+      return Pose2d.kZero;
+    }
+    PathPlannerPath last = paths.get(paths.size() - 1);
+    List<Pose2d> poses = last.getPathPoses();
+    return new Pose2d(
+        poses.get(poses.size() - 1).getTranslation(), last.getGoalEndState().rotation());
+  }
+
+  /** Runs one auto under noise. */
+  private static Trial runTrial(
+      String auto, Pose2d target, Vision vision, Noise noise, Random random) throws Exception {
+    setupTests();
+    NoisyModule[] modules = new NoisyModule[4];
+    String[] names = {"FL", "FR", "RL", "RR"};
+    for (int i = 0; i < modules.length; i++) {
+      modules[i] = new NoisyModule(names[i], noise.slip(), noise.slipStdDev(), random);
+    }
+    // the robot's actual heading, accumulated without wrapping so the gyro reading is continuous
+    double[] heading = {0};
+    NoisyGyro gyro = new NoisyGyro(() -> heading[0], noise.gyroDrift(), noise.gyroNoise(), random);
+    Drive drive = new Drive(gyro, modules[0], modules[1], modules[2], modules[3]);
+
+    try {
+      vision.setSimLatency(noise.latency(), noise.latencyStdDev());
+      // discard anything seen during the previous trial
+      vision.estimatedGlobalPoses();
+      RoboRioSim.setVInVoltage(noise.batteryVoltage());
+
+      Autos.configureAutos(drive);
+      Command command = AutoBuilder.buildAuto(auto);
+      command.schedule();
+
+      SwerveModulePosition[] last = truth(modules);
+      Pose2d actual = null;
+      double[] currents = new double[modules.length];
+      int ticks = 0;
+      while (command.isScheduled() && ticks < Scenarios.MAX_TICKS) {
+        fastForward(1);
+        ticks++;
+
+        SwerveModulePosition[] now = truth(modules);
+        if (actual == null) {
+          // the auto resets odometry to its starting pose on its first tick
+          actual = drive.pose();
+        } else {
+          Twist2d twist = drive.kinematics.toTwist2d(last, now);
+          actual = actual.exp(twist);
+          heading[0] += twist.dtheta;
+        }
+        last = now;
+
+        for (int i = 0; i < modules.length; i++) {
+          currents[i] = modules[i].current();
+        }
+        RoboRioSim.setVInVoltage(
+            BatterySim.calculateLoadedBatteryVoltage(
+                noise.batteryVoltage(), noise.batteryResistance(), currents));
+
+        vision.simulationPeriodic(actual);
+        drive.updateEstimates(vision.estimatedGlobalPoses());
+      }
+
+      boolean completed = !command.isScheduled();
+      command.cancel();
+      Pose2d end = actual == null ? drive.pose() : actual;
+      return new Trial(
+          auto,
+          completed,
+          ticks * TICK_RATE.in(Seconds),
+          end.getTranslation().getDistance(target.getTranslation()),
+          Math.abs(end.getRotation().minus(target.getRotation()).getDegrees()),
+          end.getTranslation().getDistance(drive.pose().getTranslation()));
+    } finally {
+      reset(drive);
+    }
+  }
+
+  /** Copies the actual positions of the modules. */
+  private static SwerveModulePosition[] truth(NoisyModule[] modules) {
+    SwerveModulePosition[] positions = new SwerveModulePosition[modules.length];
+    for (int i = 0; i < modules.length; i++) {
+      positions[i] = modules[i].truth().copy();
+    }
+    return positions;
+  }
+}
@@ -0,0 +1,61 @@
+package org.sciborgs1155.tools;
+
+import edu.wpi.first.math.geometry.Rotation3d;
+import edu.wpi.first.wpilibj.Timer;
+import java.util.Random;
+import java.util.function.DoubleSupplier;
+import org.sciborgs1155.robot.drive.GyroIO;
+
+/**
+ * A simulated gyro that follows the robot's actual heading, with drift and noise. Its rate of
+ * rotation is not modeled.
+ */
+final class NoisyGyro implements GyroIO {
+  private final DoubleSupplier heading;
+  private final double drift;
+  private final double noiseStdDev;
+  private final Random random;
+  private final double start = Timer.getFPGATimestamp();
+
+  private double offset = 0;
+
+  /**
+   * Creates a noisy gyro.
+   *
+   * @param heading The robot's actual heading, in radians, which is continuous.
+   * @param drift The rate the reading drifts, in radians / second.
+   * @param noiseStdDev The standard deviation of the noise on each reading, in radians.
+   * @param random The source of noise.
+   */
+  NoisyGyro(DoubleSupplier heading, double drift, double noiseStdDev, Random random) {
+    this.heading = heading;
+    this.drift = drift;
+    this.noiseStdDev = noiseStdDev;
+    this.random = random;
+  }
+
+  /** Returns the reading, before it is zeroed. */
+  private double yaw() {
+    return heading.getAsDouble()
+        + drift * (Timer.getFPGATimestamp() - start)
+        + random.nextGaussian() * noiseStdDev;
+  }
+
+  @Override
+  public void close() throws Exception {}
+
+  @Override
+  public double rate() {
+    return 0;
+  }
+
+  @Override
+  public Rotation3d rotation3d() {
+    return new Rotation3d(0, 0, yaw() - offset);
+  }
+
+  @Override
+  public void reset() {
+    offset = yaw();
+  }
+}
@@ -0,0 +1,95 @@
+package org.sciborgs1155.tools;
+
+import static edu.wpi.first.units.Units.Meters;
+import static org.sciborgs1155.robot.drive.DriveConstants.TYPE;
+import static org.sciborgs1155.robot.drive.DriveConstants.WHEEL_RADIUS;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.Random;
+import org.sciborgs1155.robot.drive.DriveConstants.ModuleConstants.Driving;
+import org.sciborgs1155.robot.drive.SimModule;
+
+/**
+ * A simulated module whose wheel slips on the carpet, and whose motors are limited by the battery.
+ *
+ * <p>The encoder reports how far the wheel turned, while {@link #truth()} tracks how far the module
+ * actually moved over the ground, which is shorter by the slip. Voltages are clamped to the
+ * simulated battery voltage, and the drive motor's current is reported to model its sag.
+ */
+final class NoisyModule extends SimModule {
+  private static final DCMotor MOTOR =
+      switch (TYPE) {
+        case SPARK -> DCMotor.getNeoVortex(1);
+        case TALON -> DCMotor.getKrakenX60(1);
+      };
+
+  private final double slip;
+  private final double slipStdDev;
+  private final Random random;
+
+  private final SwerveModulePosition truth = new SwerveModulePosition();
+  private double lastPosition = 0;
+  private double driveVoltage = 0;
+
+  /**
+   * Creates a noisy module.
+   *
+   * @param name The name of the module.
+   * @param slip The average fraction of wheel travel lost to slip.
+   * @param slipStdDev The standard deviation of the slip, each tick.
+   * @param random The source of noise.
+   */
+  NoisyModule(String name, double slip, double slipStdDev, Random random) {
+    super(name);
+    this.slip = slip;
+    this.slipStdDev = slipStdDev;
+    this.random = random;
+  }
+
+  @Override
+  public void setDriveVoltage(double voltage) {
+    driveVoltage = clamp(voltage);
+    super.setDriveVoltage(driveVoltage);
+  }
+
+  @Override
+  public void setTurnVoltage(double voltage) {
+    super.setTurnVoltage(clamp(voltage));
+  }
+
+  @Override
+  public void refresh() {
+    super.refresh();
+    double traveled = drivePosition() - lastPosition;
+    lastPosition = drivePosition();
+    double lost = MathUtil.clamp(slip + random.nextGaussian() * slipStdDev, 0, 1);
+    truth.distanceMeters += traveled * (1 - lost);
+    truth.angle = rotation();
+  }
+
+  @Override
+  public void resetEncoders() {
+    super.resetEncoders();
+    lastPosition = 0;
+  }
+
+  /** Returns the module's actual position on the ground. */
+  SwerveModulePosition truth() {
+    return truth;
+  }
+
+  /** Returns the current drawn by the drive motor, in amps. */
+  double current() {
+    double motorSpeed = driveVelocity() / WHEEL_RADIUS.in(Meters) / Driving.GEARING;
+    return Math.abs(MOTOR.getCurrent(motorSpeed, driveVoltage));
+  }
+
+  /** Clamps a voltage to what the battery can supply. */
+  private static double clamp(double voltage) {
+    double battery = RobotController.getBatteryVoltage();
+    return MathUtil.clamp(voltage, -battery, battery);
+  }
+}
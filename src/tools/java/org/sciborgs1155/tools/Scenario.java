@@ -0,0 +1,18 @@
+package org.sciborgs1155.tools;
+
+/**
+ * An independent robot scenario, run headless in simulation by {@link SimulationRunner}.
+ *
+ * <p>A scenario creates whatever subsystems it needs, drives them with {@code fastForward}, and
+ * closes them before returning. The HAL, scheduler, and FaultLogger are reset before each scenario.
+ */
+@FunctionalInterface
+public interface Scenario {
+  /**
+   * Runs the scenario to completion.
+   *
+   * @return A one-line summary of the outcome.
+   * @throws Exception If the scenario failed.
+   */
+  String run() throws Exception;
+}
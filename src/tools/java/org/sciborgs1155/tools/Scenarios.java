@@ -0,0 +1,129 @@
+package org.sciborgs1155.tools;
+
+import static edu.wpi.first.units.Units.Seconds;
+import static org.sciborgs1155.lib.UnitTestingUtil.TICK_RATE;
+import static org.sciborgs1155.lib.UnitTestingUtil.fastForward;
+import static org.sciborgs1155.lib.UnitTestingUtil.reset;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.wpilibj2.command.Command;
+import java.util.Map;
+import java.util.TreeMap;
+import org.sciborgs1155.lib.Test;
+import org.sciborgs1155.robot.commands.Autos;
+import org.sciborgs1155.robot.drive.Drive;
+
+/** The regression scenarios run by {@link SimulationRunner}, by name. */
+public final class Scenarios {
+  /** The longest a scenario's command may run, in ticks. */
+  static final int MAX_TICKS = (int) (20 / TICK_RATE.in(Seconds));
+
+  /** The farthest a drive scenario may stop from its target, in meters, as in SwerveTest. */
+  static final double DRIVE_TOLERANCE = 0.15;
+
+  private static final Pose2d[] DRIVE_TARGETS = {
+    new Pose2d(2, 2, Rotation2d.kZero),
+    new Pose2d(5, 4, Rotation2d.kCCW_90deg),
+    new Pose2d(8, 1, Rotation2d.kPi),
+    new Pose2d(14, 7, Rotation2d.fromDegrees(-45)),
+  };
+
+  private Scenarios() {}
+
+  /**
+   * Returns every scenario, sorted by name.
+   *
+   * @return The scenarios.
+   */
+  public static Map<String, Scenario> all() {
+    Map<String, Scenario> scenarios = new TreeMap<>();
+    scenarios.put("drive/systems check", Scenarios::systemsCheck);
+    for (Pose2d target : DRIVE_TARGETS) {
+      scenarios.put("drive/drive to " + format(target), () -> driveTo(target));
+    }
+    for (String auto : AutoBuilder.getAllAutoNames()) {
+      scenarios.put("auto/" + auto, () -> auto(auto));
+    }
+    return scenarios;
+  }
+
+  /**
+   * Runs the drivetrain's systems check.
+   *
+   * @throws AssertionError If any of its assertions failed.
+   */
+  private static String systemsCheck() throws Exception {
+    Drive drive = Drive.create();
+    try {
+      int ticks = runUntilFinished(Test.toUnitTestCommand(drive.systemsCheck()));
+      return String.format("passed in %.2f s", ticks * TICK_RATE.in(Seconds));
+    } finally {
+      reset(drive);
+    }
+  }
+
+  /**
+   * Drives to a pose, and checks that it was reached.
+   *
+   * @throws IllegalStateException If the robot stopped farther than {@link #DRIVE_TOLERANCE} from
+   *     the target.
+   */
+  private static String driveTo(Pose2d target) throws Exception {
+    Drive drive = Drive.create();
+    try {
+      drive.resetOdometry(Pose2d.kZero);
+      int ticks = runUntilFinished(drive.driveTo(target));
+      double error = drive.pose().getTranslation().getDistance(target.getTranslation());
+      if (error > DRIVE_TOLERANCE) {
+        throw new IllegalStateException(
+            String.format(
+                "stopped %.3f m from %s, at %s", error, format(target), format(drive.pose())));
+      }
+      return String.format("reached in %.2f s, error %.3f m", ticks * TICK_RATE.in(Seconds), error);
+    } finally {
+      reset(drive);
+    }
+  }
+
+  /** Runs an auto routine to completion. */
+  private static String auto(String name) throws Exception {
+    Drive drive = Drive.create();
+    try {
+      Autos.configureAutos(drive);
+      int ticks = runUntilFinished(AutoBuilder.buildAuto(name));
+      return String.format(
+          "finished in %.2f s at %s", ticks * TICK_RATE.in(Seconds), format(drive.pose()));
+    } finally {
+      reset(drive);
+    }
+  }
+
+  /**
+   * Schedules a command and steps the clock until it ends.
+   *
+   * @param command The command to run.
+   * @return The number of ticks it ran for.
+   * @throws IllegalStateException If the command ran for longer than {@link #MAX_TICKS}.
+   */
+  static int runUntilFinished(Command command) {
+    command.schedule();
+    int ticks = 0;
+    do {
+      fastForward(1);
+      ticks++;
+      if (ticks > MAX_TICKS) {
+        command.cancel();
+        throw new IllegalStateException(command.getName() + " did not finish");
+      }
+    } while (command.isScheduled());
+    return ticks;
+  }
+
+  /** Formats a pose compactly. */
+  static String format(Pose2d pose) {
+    return String.format(
+        "(%.2f, %.2f, %.0f deg)", pose.getX(), pose.getY(), pose.getRotation().getDegrees());
+  }
+}
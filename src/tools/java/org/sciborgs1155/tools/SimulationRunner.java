@@ -0,0 +1,152 @@
+package org.sciborgs1155.tools;
+
+import static org.sciborgs1155.lib.UnitTestingUtil.reset;
+import static org.sciborgs1155.lib.UnitTestingUtil.setupTests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Runs the {@link Scenarios} headless, in parallel across forked JVMs.
+ *
+ * <p>The robot code relies on global state (the HAL, the command scheduler, and FaultLogger), so
+ * scenarios are isolated by process rather than by thread. Scenarios are split between one JVM per
+ * fork, and each JVM runs its share in turn, so HAL initialization is paid once per fork rather
+ * than once per scenario. The simulated clock is paused and only stepped by the scenarios, so they
+ * run as fast as the CPU allows.
+ *
+ * <pre>
+ * ./gradlew simulate # every scenario, one fork per core
+ * ./gradlew simulate --args="drive/ --forks=4" # scenarios starting with drive/, on 4 forks
+ * </pre>
+ */
+public final class SimulationRunner {
+  /** The prefix of every line a fork writes to report a scenario's result. */
+  private static final String RESULT = "SCENARIO\t";
+
+  private static final String CHILD = "--child";
+  private static final String FORKS = "--forks=";
+
+  private SimulationRunner() {}
+
+  /** The outcome of one scenario. */
+  private static record Result(String name, boolean passed, long millis, String summary) {
+    static Result parse(String line) {
+      String[] fields = line.split("\t", 4);
+      return new Result(fields[0], fields[1].equals("PASS"), Long.parseLong(fields[2]), fields[3]);
+    }
+
+    String format() {
+      return RESULT + name + "\t" + (passed ? "PASS" : "FAIL") + "\t" + millis + "\t" + summary;
+    }
+  }
+
+  public static void main(String[] args) throws Exception {
+    if (args.length > 0 && args[0].equals(CHILD)) {
+      runChild(Arrays.copyOfRange(args, 1, args.length));
+      System.exit(0);
+    }
+
+    String filter = "";
+    int forks = Runtime.getRuntime().availableProcessors();
+    for (String arg : args) {
+      if (arg.startsWith(FORKS)) {
+        forks = Integer.parseInt(arg.substring(FORKS.length()));
+      } else {
+        filter = arg;
+      }
+    }
+    final String prefix = filter;
+    List<String> names =
+        Scenarios.all().keySet().stream().filter(name -> name.startsWith(prefix)).toList();
+    System.exit(runParent(names, Math.max(1, Math.min(forks, names.size()))) ? 0 : 1);
+  }
+
+  /**
+   * Runs scenarios across forked JVMs and prints their aggregated results.
+   *
+   * @param names The names of the scenarios to run.
+   * @param forks The number of JVMs to fork.
+   * @return Whether every scenario passed.
+   */
+  private static boolean runParent(List<String> names, int forks) throws Exception {
+    long start = System.nanoTime();
+    List<List<String>> shares = new ArrayList<>();
+    for (int i = 0; i < forks; i++) {
+      shares.add(new ArrayList<>());
+    }
+    for (int i = 0; i < names.size(); i++) {
+      shares.get(i % forks).add(names.get(i));
+    }
+
+    List<CompletableFuture<List<Result>>> futures = new ArrayList<>();
+    for (List<String> share : shares) {
+      List<String> args = new ArrayList<>();
+      args.add(CHILD);
+      args.addAll(share);
+      Process process = Forks.start(SimulationRunner.class, args);
+      futures.add(CompletableFuture.supplyAsync(() -> collect(process, share)));
+    }
+
+    List<Result> results = new ArrayList<>();
+    for (var future : futures) {
+      results.addAll(future.get());
+    }
+    results.sort((a, b) -> a.name().compareTo(b.name()));
+
+    int passed = 0;
+    for (Result result : results) {
+      System.out.printf(
+          "%s %-48s %7d ms  %s%n",
+          result.passed() ? "PASS" : "FAIL", result.name(), result.millis(), result.summary());
+      passed += result.passed() ? 1 : 0;
+    }
+    System.out.printf(
+        "%d of %d scenarios passed on %d forks in %.1f s%n",
+        passed, results.size(), forks, (System.nanoTime() - start) / 1e9);
+    return passed == results.size() && results.size() == names.size();
+  }
+
+  /**
+   * Reads the results a fork reports. Any scenario the fork did not report, such as after a crash,
+   * is failed with the fork's last output.
+   */
+  private static List<Result> collect(Process process, List<String> names) {
+    Forks.Output output = Forks.collect(process, RESULT);
+    List<Result> results = new ArrayList<>();
+    for (String line : output.lines()) {
+      results.add(Result.parse(line));
+    }
+    for (String name : names) {
+      if (results.stream().noneMatch(r -> r.name().equals(name))) {
+        results.add(new Result(name, false, 0, "fork exited: " + output.last()));
+      }
+    }
+    return results;
+  }
+
+  /** Runs scenarios in turn within this JVM, reporting each result on its own line. */
+  private static void runChild(String[] names) {
+    Map<String, Scenario> scenarios = Scenarios.all();
+    for (String name : names) {
+      setupTests();
+      long start = System.nanoTime();
+      Result result;
+      try {
+        String summary = scenarios.get(name).run();
+        result = new Result(name, true, (System.nanoTime() - start) / 1_000_000, summary);
+      } catch (Throwable e) {
+        result = new Result(name, false, (System.nanoTime() - start) / 1_000_000, e.toString());
+      }
+      try {
+        reset();
+      } catch (Exception e) {
+        // a scenario that fails to clean up has already reported its own result
+      }
+      System.out.println(result.format().replace('\n', ' '));
+    }
+  }
+}
@@ -0,0 +1,151 @@
+package org.sciborgs1155.tools;
+
+import com.pathplanner.lib.auto.AutoBuilder;
+import com.pathplanner.lib.commands.PathPlannerAuto;
+import com.pathplanner.lib.config.RobotConfig;
+import com.pathplanner.lib.path.PathPlannerPath;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectory;
+import com.pathplanner.lib.trajectory.PathPlannerTrajectoryState;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.wpilibj.Filesystem;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.sciborgs1155.lib.TrajectoryFile;
+import org.sciborgs1155.robot.commands.Autos;
+
+/**
+ * Pregenerates the trajectories of every PathPlanner auto, for both alliances, into the deploy
+ * directory, where {@link Autos#configureAutos} follows them instead of generating them at startup.
+ *
+ * <p>Only autos that are a sequence of paths without event markers can be followed this way, since
+ * a trajectory only drives. Other autos are skipped, and are built by PathPlanner as before.
+ * Trajectories of autos that no longer exist, or can no longer be pregenerated, are listed as
+ * stale, and only deleted when asked with {@code --clean}.
+ *
+ * <pre>
+ * ./gradlew generateTrajectories # run after editing paths, and commit the results
+ * ./gradlew generateTrajectories --args="--clean" # also deletes stale trajectories
+ * </pre>
+ */
+public final class TrajectoryGenerator {
+  private TrajectoryGenerator() {}
+
+  public static void main(String[] args) throws Exception {
+    boolean clean = List.of(args).contains("--clean");
+    Path directory = Filesystem.getDeployDirectory().toPath().resolve(Autos.TRAJECTORIES);
+    Files.createDirectories(directory);
+    RobotConfig config = Autos.robotConfig();
+
+    List<Path> generated = new ArrayList<>();
+    for (String name : AutoBuilder.getAllAutoNames()) {
+      Path autoFile =
+          Filesystem.getDeployDirectory().toPath().resolve("pathplanner/autos/" + name + ".auto");
+      JSONObject auto = (JSONObject) new JSONParser().parse(Files.readString(autoFile));
+      List<PathPlannerPath> paths = PathPlannerAuto.getPathGroupFromAutoFile(name);
+      if (Boolean.TRUE.equals(auto.get("choreoAuto"))
+          || !onlyPaths((JSONObject) auto.get("command"))
+          || paths.isEmpty()
+          || paths.stream().anyMatch(path -> !path.getEventMarkers().isEmpty())) {
+        System.out.println("skipped " + name + ", which does more than follow paths");
+        continue;
+      }
+
+      Path file = Autos.trajectoryPath(name);
+      List<TrajectoryFile.Sample> blue = generate(paths, false, config);
+      List<TrajectoryFile.Sample> red = generate(paths, true, config);
+      boolean resetOdometry = !Boolean.FALSE.equals(auto.get("resetOdom"));
+      TrajectoryFile.write(file, resetOdometry, blue, red);
+      generated.add(file);
+      System.out.printf(
+          "generated %s, %.2f s in %d samples%n",
+          name, blue.get(blue.size() - 1).time, blue.size() + red.size());
+    }
+
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.toList()) {
+        if (file.toString().endsWith(TrajectoryFile.EXTENSION) && !generated.contains(file)) {
+          if (clean) {
+            Files.delete(file);
+            System.out.println("deleted stale " + file.getFileName());
+          } else {
+            System.out.println("stale " + file.getFileName() + ", rerun with --clean to delete it");
+          }
+        }
+      }
+    }
+  }
+
+  /** Returns whether an auto's command is made only of paths, run in sequence. */
+  private static boolean onlyPaths(JSONObject command) {
+    JSONObject data = (JSONObject) command.get("data");
+    return switch ((String) command.get("type")) {
+      case "path" -> true;
+      case "sequential" -> {
+        for (Object child : (JSONArray) data.get("commands")) {
+          if (!onlyPaths((JSONObject) child)) {
+            yield false;
+          }
+        }
+        yield true;
+      }
+      default -> false;
+    };
+  }
+
+  /**
+   * Generates the trajectory of a sequence of paths, with each path starting where the last ended.
+   *
+   * @param paths The paths, as drawn for the blue alliance.
+   * @param red Whether to flip the paths for the red alliance.
+   * @param config The robot's configuration.
+   * @return The samples of the whole sequence, in order of time.
+   * @throws IOException If a path has no ideal starting state.
+   */
+  private static List<TrajectoryFile.Sample> generate(
+      List<PathPlannerPath> paths, boolean red, RobotConfig config) throws IOException {
+    List<TrajectoryFile.Sample> samples = new ArrayList<>();
+    ChassisSpeeds speeds = new ChassisSpeeds();
+    Rotation2d rotation = null;
+    double offset = 0;
+    for (PathPlannerPath blue : paths) {
+      PathPlannerPath path = red ? blue.flipPath() : blue;
+      if (rotation == null) {
+        rotation =
+            path.getStartingHolonomicPose()
+                .map(Pose2d::getRotation)
+                .orElseThrow(() -> new IOException(path.name + " has no ideal starting state"));
+      }
+      PathPlannerTrajectory trajectory = path.generateTrajectory(speeds, rotation, config);
+      for (PathPlannerTrajectoryState state : trajectory.getStates()) {
+        double time = offset + state.timeSeconds;
+        // each path starts with the state the last ended with
+        if (!samples.isEmpty() && time <= samples.get(samples.size() - 1).time) {
+          continue;
+        }
+        samples.add(
+            new TrajectoryFile.Sample(
+                time,
+                state.pose.getX(),
+                state.pose.getY(),
+                state.pose.getRotation().getRadians(),
+                state.fieldSpeeds.vxMetersPerSecond,
+                state.fieldSpeeds.vyMetersPerSecond,
+                state.fieldSpeeds.omegaRadiansPerSecond));
+      }
+      PathPlannerTrajectoryState end = trajectory.getEndState();
+      offset += trajectory.getTotalTimeSeconds();
+      rotation = end.pose.getRotation();
+      speeds = ChassisSpeeds.fromFieldRelativeSpeeds(end.fieldSpeeds, rotation);
+    }
+    return samples;
+  }
+}